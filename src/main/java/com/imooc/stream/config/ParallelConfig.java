@@ -0,0 +1,14 @@
+package com.imooc.stream.config;
+
+import com.imooc.stream.util.ParallelExecutor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ParallelConfig {
+
+    @Bean(destroyMethod = "close")
+    public ParallelExecutor parallelExecutor(ParallelProperties properties) {
+        return new ParallelExecutor(properties.getPools(), properties.getDeadline());
+    }
+}
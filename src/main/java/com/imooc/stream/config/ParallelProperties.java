@@ -0,0 +1,21 @@
+package com.imooc.stream.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "app.parallel")
+public class ParallelProperties {
+    /**
+     * 并行任务的默认期限，超过即向调用方报错
+     */
+    private Duration deadline = Duration.ofSeconds(10);
+    /**
+     * 池名到并行度，服务端的并行流只能在这里声明的池中执行
+     */
+    private Map<String, Integer> pools = new LinkedHashMap<>();
+}
@@ -0,0 +1,18 @@
+package com.imooc.stream.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+@Configuration
+public class ReactiveConfig {
+
+    /**
+     * /api/v2 中无法避免的阻塞 JDBC 调用都在这个有界的弹性线程池中执行，不占用 Web 容器的线程
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler jdbcScheduler(ReactiveProperties properties) {
+        return Schedulers.newBoundedElastic(properties.getJdbcThreads(), properties.getQueuedTasks(), "jdbc");
+    }
+}
@@ -0,0 +1,17 @@
+package com.imooc.stream.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.reactive")
+public class ReactiveProperties {
+    /**
+     * 执行阻塞 JDBC 调用的线程数上限，超过连接池大小的线程只会在取连接时阻塞，一般与连接池大小相同
+     */
+    private int jdbcThreads = 10;
+    /**
+     * 线程全忙时最多排队的任务数，超出后请求立即失败而不是无限堆积
+     */
+    private int queuedTasks = 10_000;
+}
@@ -0,0 +1,34 @@
+package com.imooc.stream.config;
+
+import com.imooc.stream.service.SqlMetrics;
+import com.imooc.stream.util.CountingDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class SqlTrackingConfig {
+
+    /**
+     * 在 DataSource 注入 JPA 与 JDBC 之前包装它，所有语句都经过 {@link CountingDataSource}
+     */
+    @Bean
+    public static BeanPostProcessor countingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource && !(bean instanceof CountingDataSource)
+                        ? new CountingDataSource((DataSource) bean)
+                        : bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlTrackingFilter> sqlTrackingFilter(SqlTrackingProperties properties, SqlMetrics sqlMetrics) {
+        return new FilterRegistrationBean<>(new SqlTrackingFilter(properties, sqlMetrics));
+    }
+}
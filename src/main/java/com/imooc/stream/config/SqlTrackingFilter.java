@@ -0,0 +1,104 @@
+package com.imooc.stream.config;
+
+import com.imooc.stream.service.SqlMetrics;
+import com.imooc.stream.util.SqlStats;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 统计每个请求在处理线程上执行的 SQL：汇总到 {@link SqlMetrics}，超出预算或疑似 N+1 时记 WARN 日志，
+ * 开启 header 时在响应头中返回本次的语句数、行数和数据库时间（streamingPaths 中的流式接口除外）。
+ * 异步请求（/api/v2）的语句在 jdbcScheduler 的线程上执行，不在统计范围内
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class SqlTrackingFilter extends OncePerRequestFilter {
+    public static final String STATEMENTS_HEADER = "X-SQL-Statements";
+    public static final String ROWS_HEADER = "X-SQL-Rows";
+    public static final String TIME_HEADER = "X-SQL-Time-Ms";
+
+    private final SqlTrackingProperties properties;
+    private final SqlMetrics sqlMetrics;
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+
+    /**
+     * 开启 header 时响应体被缓存，异步请求的响应体在异步分派中写入，需要在那时再输出
+     */
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (isAsyncDispatch(request)) {
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                copyCachedBody(response);
+            }
+            return;
+        }
+        val header = properties.isHeader() && !isStreaming(request);
+        val tracked = header ? new ContentCachingResponseWrapper(response) : response;
+        val stats = SqlStats.begin(properties.getBudget(), properties.getBudgetAction() == SqlTrackingProperties.BudgetAction.FAIL);
+        try {
+            filterChain.doFilter(request, tracked);
+        } finally {
+            SqlStats.end();
+            if (!isAsyncStarted(request)) {
+                report(request, stats);
+                if (header) {
+                    tracked.setHeader(STATEMENTS_HEADER, String.valueOf(stats.getStatements()));
+                    tracked.setHeader(ROWS_HEADER, String.valueOf(stats.getRows()));
+                    tracked.setHeader(TIME_HEADER, String.format("%.3f", stats.getNanos() / 1e6));
+                    copyCachedBody(tracked);
+                }
+            }
+        }
+    }
+
+    /**
+     * 流式接口的响应头在写第一批数据时就已提交，缓存整个响应体会让导出之类的接口退化成一次性占满内存
+     */
+    private boolean isStreaming(HttpServletRequest request) {
+        val path = request.getRequestURI().substring(request.getContextPath().length());
+        return properties.getStreamingPaths().stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    private void report(HttpServletRequest request, SqlStats stats) {
+        val pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern != null) {
+            sqlMetrics.record(request.getMethod() + " " + pattern, stats);
+        }
+        if (stats.isOverBudget()) {
+            log.warn("{} {} exceeded SQL budget {}: {}", request.getMethod(), request.getRequestURI(), properties.getBudget(), stats);
+        }
+        val repeated = stats.mostRepeated();
+        if (properties.getRepeatThreshold() > 0 && repeated != null && repeated.getValue() >= properties.getRepeatThreshold()) {
+            log.warn("{} {} executed the same SQL {} times, possible N+1: {}",
+                    request.getMethod(), request.getRequestURI(), repeated.getValue(), repeated.getKey());
+        }
+    }
+
+    private static void copyCachedBody(HttpServletResponse response) throws IOException {
+        val cached = WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+        if (cached != null) {
+            cached.copyBodyToResponse();
+        }
+    }
+}
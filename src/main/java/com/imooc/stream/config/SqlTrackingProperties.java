@@ -0,0 +1,39 @@
+package com.imooc.stream.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "app.sql-tracking")
+public class SqlTrackingProperties {
+    public enum BudgetAction {
+        /**
+         * 请求结束后记一条 WARN 日志
+         */
+        LOG,
+        /**
+         * 执行第 budget + 1 条语句时抛出异常，请求失败
+         */
+        FAIL
+    }
+
+    /**
+     * 是否在响应头中返回本次请求的语句数、行数和数据库时间，只应在开发环境开启：响应体会先缓存在内存中
+     */
+    private boolean header = false;
+    /**
+     * 流式输出的接口（Ant 风格路径），响应体边查边写，不缓存也不返回统计头，只记录指标和日志
+     */
+    private List<String> streamingPaths = List.of("/api/users/export", "/api/v2/users");
+    /**
+     * 每个请求的语句数上限，0 表示不限
+     */
+    private int budget = 0;
+    private BudgetAction budgetAction = BudgetAction.LOG;
+    /**
+     * 同一条 SQL 在一个请求中执行达到这个次数时按疑似 N+1 记 WARN 日志，0 表示不检查
+     */
+    private int repeatThreshold = 5;
+}
@@ -0,0 +1,23 @@
+package com.imooc.stream.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.user-cache")
+public class UserCacheProperties {
+    /**
+     * 缓存的最大条目数，超出后按 LRU 淘汰
+     */
+    private int maximumSize = 10_000;
+    /**
+     * 命中用户的存活时间
+     */
+    private Duration ttl = Duration.ofMinutes(5);
+    /**
+     * "用户不存在" 结果的存活时间，应明显短于 ttl
+     */
+    private Duration negativeTtl = Duration.ofSeconds(5);
+}
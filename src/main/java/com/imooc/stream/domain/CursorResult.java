@@ -0,0 +1,18 @@
+package com.imooc.stream.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 游标分页结果，next 为空表示已经到达最后一页
+ */
+@AllArgsConstructor
+@Getter
+public class CursorResult<T> implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private final String next;
+    private final List<T> data;
+}
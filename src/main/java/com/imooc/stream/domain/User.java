@@ -1,11 +1,14 @@
 package com.imooc.stream.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.imooc.stream.util.CollationKeys;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
 import javax.persistence.*;
 import java.io.Serializable;
 import java.util.List;
+import java.util.Objects;
 
 @With
 @Builder
@@ -59,13 +62,14 @@ public class User implements Serializable {
     private boolean enabled = true;
 
     /**
-     * 密码哈希
+     * 密码哈希，尚未设置密码时为空串
      */
     @JsonIgnore
     @Getter
     @Setter
+    @Builder.Default
     @Column(name = "password_hash", length = 80, nullable = false)
-    private String password;
+    private String password = "";
 
     /**
      * 电邮地址
@@ -75,13 +79,38 @@ public class User implements Serializable {
     @Column(unique = true, nullable = false)
     private String email;
 
+    /**
+     * 年龄，取值 [0, {@value com.imooc.stream.util.UserStatsCounter#MAX_AGE}]，由 schema.sql 中的 ck_mooc_users_age 约束保证
+     */
     @Getter
     @Setter
     private int age;
 
+    /**
+     * 姓名按简体中文（拼音）排序规则生成的排序键，见 {@link CollationKeys#sortKey(String)}；
+     * 保存实体时自动更新，绕过实体直接写库的地方需要自己计算
+     */
+    @JsonIgnore
+    @Getter
+    @Column(name = "name_sort_key", length = CollationKeys.MAX_SORT_KEY_LENGTH)
+    private String nameSortKey;
+
+    /**
+     * 角色，保存在 mooc_user_roles 表中；延迟加载，并按批次一次初始化多个用户的角色，避免 N+1 查询
+     */
     @Getter
+    @ElementCollection
+    @CollectionTable(name = "mooc_user_roles", joinColumns = @JoinColumn(name = "user_id"))
+    @Column(name = "role", length = 50)
+    @BatchSize(size = 100)
     public List<String> roles;
 
+    @PrePersist
+    @PreUpdate
+    void updateNameSortKey() {
+        nameSortKey = CollationKeys.SIMPLIFIED_CHINESE.sortKey(name);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -93,9 +122,13 @@ public class User implements Serializable {
         return id != null && id.equals(((User) o).id);
     }
 
+    /**
+     * 按用户名散列：用户名唯一且创建后不再修改，相同 id 的实例用户名也相同，与 equals 保持一致；
+     * 保存前后散列值不变，未持久化时放进 HashSet/HashMap 的实体在 save 拿到 id 之后仍然能找到
+     */
     @Override
     public int hashCode() {
-        return 31;
+        return Objects.hashCode(username);
     }
 
     // prettier-ignore
@@ -0,0 +1,42 @@
+package com.imooc.stream.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 用户数据写入数据库之后发布的事件，供各个内存索引增量同步。
+ * users 是受影响的用户，不同类型携带的数据不同：
+ * <ul>
+ *     <li>CREATED：保存后的完整实体带 id；批量导入时是一批用户（不含角色）</li>
+ *     <li>UPDATED：只有一个用户，只包含 username、mobile、name、email 这几个被修改的字段，不带 id</li>
+ *     <li>DELETED：删除语句返回的整行（不含角色），按条件删除时可能有很多个</li>
+ * </ul>
+ */
+@AllArgsConstructor
+@Getter
+public class UserChangedEvent {
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    private final Type type;
+    private final List<User> users;
+
+    public static UserChangedEvent created(User user) {
+        return new UserChangedEvent(Type.CREATED, List.of(user));
+    }
+
+    public static UserChangedEvent created(List<User> users) {
+        return new UserChangedEvent(Type.CREATED, users);
+    }
+
+    public static UserChangedEvent updated(User user) {
+        return new UserChangedEvent(Type.UPDATED, List.of(user));
+    }
+
+    public static UserChangedEvent deleted(List<User> users) {
+        return new UserChangedEvent(Type.DELETED, users);
+    }
+}
@@ -1,10 +1,15 @@
 package com.imooc.stream.domain.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 
 import java.io.Serializable;
 
+/**
+ * 忽略未知字段：/users/export 导出的 NDJSON 带有 id、enabled、age，可以直接再导入
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
 @AllArgsConstructor
 @Getter
 public class AddUserDTO implements Serializable {
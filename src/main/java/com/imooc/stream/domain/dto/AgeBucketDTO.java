@@ -0,0 +1,21 @@
+package com.imooc.stream.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.Serializable;
+
+/**
+ * 一个年龄段的汇总，bucket 为该段的下界，即 floor(age / width) * width
+ */
+@AllArgsConstructor
+@Getter
+public class AgeBucketDTO implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private final int bucket;
+    private final long count;
+    private final int min;
+    private final int max;
+    private final double average;
+    private final long sum;
+}
@@ -0,0 +1,13 @@
+package com.imooc.stream.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.Serializable;
+
+@AllArgsConstructor
+@Getter
+public class BulkDeleteResultDTO implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private final long deleted;
+}
@@ -0,0 +1,20 @@
+package com.imooc.stream.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 批量删除条件：给出 usernames 时按用户名删除，否则按 enabled/minAge/maxAge 组合过滤，至少要给出一个条件
+ */
+@AllArgsConstructor
+@Getter
+public class BulkDeleteUserDTO implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private final List<String> usernames;
+    private final Boolean enabled;
+    private final Integer minAge;
+    private final Integer maxAge;
+}
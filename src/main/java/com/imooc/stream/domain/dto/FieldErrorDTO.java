@@ -0,0 +1,17 @@
+package com.imooc.stream.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.Serializable;
+
+/**
+ * 写入被数据库约束拒绝时的响应体，field 为 null 表示无法定位到具体字段
+ */
+@AllArgsConstructor
+@Getter
+public class FieldErrorDTO implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private final String field;
+    private final String message;
+}
@@ -0,0 +1,32 @@
+package com.imooc.stream.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 批量导入结果，failures 只保留前若干条，完整的失败数量见 failed
+ */
+@AllArgsConstructor
+@Getter
+public class ImportResultDTO implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private final long total;
+    private final long imported;
+    private final long failed;
+    private final List<Failure> failures;
+
+    @AllArgsConstructor
+    @Getter
+    public static class Failure implements Serializable {
+        private static final long serialVersionUID = 1L;
+        /**
+         * 在上传内容中的行号，从 1 开始
+         */
+        private final long line;
+        private final String field;
+        private final String reason;
+    }
+}
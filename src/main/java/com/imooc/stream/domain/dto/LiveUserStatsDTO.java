@@ -0,0 +1,17 @@
+package com.imooc.stream.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.Serializable;
+import java.util.List;
+
+@AllArgsConstructor
+@Getter
+public class LiveUserStatsDTO implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private final long total;
+    private final long enabled;
+    private final long disabled;
+    private final List<AgeBucketDTO> buckets;
+}
@@ -0,0 +1,14 @@
+package com.imooc.stream.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.Serializable;
+
+@AllArgsConstructor
+@Getter
+public class MobileLookupDTO implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private final String mobile;
+    private final long id;
+}
@@ -0,0 +1,14 @@
+package com.imooc.stream.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.Serializable;
+
+@AllArgsConstructor
+@Getter
+public class RoleCountDTO implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private final String role;
+    private final long users;
+}
@@ -0,0 +1,17 @@
+package com.imooc.stream.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.Serializable;
+
+/**
+ * count 为满足条件的用户总数，ids 最多只返回请求中 limit 个，按 id 升序
+ */
+@AllArgsConstructor
+@Getter
+public class RoleQueryResultDTO implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private final long count;
+    private final long[] ids;
+}
@@ -1,5 +1,6 @@
 package com.imooc.stream.domain.dto;
 
+import com.imooc.stream.domain.User;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -13,8 +14,19 @@ import java.io.Serializable;
 @Data
 public class UserDTO implements Serializable {
     private static final long serialVersionUID = 1L;
+    public static final String ENABLED = "激活";
+    public static final String DISABLED = "禁用";
     private String username;
     private String mobile;
     private String name;
     private String enabled;
+
+    public static UserDTO of(User user) {
+        return UserDTO.builder()
+                .username(user.getUsername())
+                .name(user.getName())
+                .enabled(user.isEnabled() ? ENABLED : DISABLED)
+                .mobile(user.getMobile())
+                .build();
+    }
 }
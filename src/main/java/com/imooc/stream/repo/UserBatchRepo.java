@@ -0,0 +1,218 @@
+package com.imooc.stream.repo;
+
+import com.imooc.stream.domain.User;
+import com.imooc.stream.domain.dto.AddUserDTO;
+import com.imooc.stream.domain.dto.AgeBucketDTO;
+import com.imooc.stream.util.CollationKeys;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * 绕过 JPA 直接用 JDBC 批量读写 mooc_users：IDENTITY 主键会让 Hibernate 关闭批量插入，
+ * 全表扫描也不需要构造实体。
+ * 删除使用 H2 的 OLD TABLE (DELETE ...) 一条语句返回被删除的行，这部分 SQL 只能在 H2 上运行。
+ * H2 1.4.200 的会话执行过 OLD TABLE 之后，查询缓存中已编译的 UPDATE 会报告更新了行却不生效，
+ * 因此连接串中以 QUERY_CACHE_SIZE=0 关闭了查询缓存
+ */
+@RequiredArgsConstructor
+@Repository
+public class UserBatchRepo {
+    private static final String INSERT_SQL = "INSERT INTO mooc_users(username, mobile, name, name_sort_key, email, password_hash, enabled, age) " +
+            "VALUES (?, ?, ?, ?, ?, '', TRUE, 0)";
+    private static final String USER_COLUMNS = "id, username, mobile, name, email, enabled, age";
+    private static final int BACKFILL_BATCH_SIZE = 1000;
+    /**
+     * 不含密码和角色
+     */
+    private static final RowMapper<User> USER_ROW_MAPPER = (rs, rowNum) -> User.builder()
+            .id(rs.getLong("id"))
+            .username(rs.getString("username"))
+            .mobile(rs.getString("mobile"))
+            .name(rs.getString("name"))
+            .email(rs.getString("email"))
+            .enabled(rs.getBoolean("enabled"))
+            .age(rs.getInt("age"))
+            .build();
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * 一次查询找出已被占用的 username / mobile / email
+     */
+    public ExistingKeys findExistingKeys(Collection<String> usernames, Collection<String> mobiles, Collection<String> emails) {
+        val existing = new ExistingKeys(new HashSet<>(), new HashSet<>(), new HashSet<>());
+        val params = new MapSqlParameterSource()
+                .addValue("usernames", usernames)
+                .addValue("mobiles", mobiles)
+                .addValue("emails", emails);
+        jdbcTemplate.query(
+                "SELECT username, mobile, email FROM mooc_users " +
+                        "WHERE username IN (:usernames) OR mobile IN (:mobiles) OR email IN (:emails)",
+                params,
+                rs -> {
+                    existing.usernames.add(rs.getString("username"));
+                    existing.mobiles.add(rs.getString("mobile"));
+                    existing.emails.add(rs.getString("email"));
+                });
+        return existing;
+    }
+
+    /**
+     * 使用 JDBC addBatch/executeBatch 一次提交整批插入
+     */
+    public void batchInsert(List<AddUserDTO> users) {
+        jdbcTemplate.getJdbcTemplate().batchUpdate(INSERT_SQL, users.stream().map(UserBatchRepo::toArgs).collect(toList()));
+    }
+
+    public void insert(AddUserDTO user) {
+        jdbcTemplate.getJdbcTemplate().update(INSERT_SQL, toArgs(user));
+    }
+
+    /**
+     * 按用户名查出整行（不含角色）
+     */
+    public List<User> findByUsernameIn(Collection<String> usernames) {
+        return jdbcTemplate.query(
+                "SELECT " + USER_COLUMNS + " FROM mooc_users WHERE username IN (:usernames)",
+                new MapSqlParameterSource("usernames", usernames),
+                USER_ROW_MAPPER);
+    }
+
+    /**
+     * 按手机号查出整行（不含角色）
+     */
+    public List<User> findByMobileIn(Collection<String> mobiles) {
+        return jdbcTemplate.query(
+                "SELECT " + USER_COLUMNS + " FROM mooc_users WHERE mobile IN (:mobiles)",
+                new MapSqlParameterSource("mobiles", mobiles),
+                USER_ROW_MAPPER);
+    }
+
+    /**
+     * 一条语句删除并返回被删除的行，mooc_user_roles 中的角色由外键级联删除
+     *
+     * @return 被删除的行
+     */
+    public List<User> deleteByUsernameIn(Collection<String> usernames) {
+        return jdbcTemplate.query(
+                "SELECT " + USER_COLUMNS + " FROM OLD TABLE (DELETE FROM mooc_users WHERE username IN (:usernames))",
+                new MapSqlParameterSource("usernames", usernames),
+                USER_ROW_MAPPER);
+    }
+
+    /**
+     * 为 null 的条件不参与过滤，调用方负责保证至少有一个条件不为 null
+     *
+     * @return 被删除的行
+     */
+    public List<User> deleteByFilter(Boolean enabled, Integer minAge, Integer maxAge) {
+        val params = new MapSqlParameterSource()
+                .addValue("enabled", enabled)
+                .addValue("minAge", minAge)
+                .addValue("maxAge", maxAge);
+        return jdbcTemplate.query(
+                "SELECT " + USER_COLUMNS + " FROM OLD TABLE (DELETE FROM mooc_users " +
+                        "WHERE (CAST(:enabled AS BOOLEAN) IS NULL OR enabled = :enabled) " +
+                        "AND (CAST(:minAge AS INT) IS NULL OR age >= :minAge) " +
+                        "AND (CAST(:maxAge AS INT) IS NULL OR age <= :maxAge))",
+                params,
+                USER_ROW_MAPPER);
+    }
+
+    /**
+     * 按 width 划分年龄段并在数据库中 GROUP BY 汇总，只有每段一行结果返回应用。
+     * 分段表达式放在子查询里计算一次，外层按其别名分组；age 非负，整数除法即向下取整
+     *
+     * @param enabled 为 null 表示不过滤
+     */
+    public List<AgeBucketDTO> summarizeByAgeBucket(int width, Boolean enabled) {
+        val params = new MapSqlParameterSource()
+                .addValue("width", width)
+                .addValue("enabled", enabled);
+        return jdbcTemplate.query(
+                "SELECT bucket, COUNT(*) AS cnt, MIN(age) AS min_age, MAX(age) AS max_age, " +
+                        "AVG(CAST(age AS DOUBLE)) AS avg_age, SUM(CAST(age AS BIGINT)) AS sum_age " +
+                        "FROM (SELECT age / :width * :width AS bucket, age FROM mooc_users " +
+                        "WHERE CAST(:enabled AS BOOLEAN) IS NULL OR enabled = :enabled) t " +
+                        "GROUP BY bucket ORDER BY bucket",
+                params,
+                (rs, rowNum) -> new AgeBucketDTO(
+                        rs.getInt("bucket"),
+                        rs.getLong("cnt"),
+                        rs.getInt("min_age"),
+                        rs.getInt("max_age"),
+                        rs.getDouble("avg_age"),
+                        rs.getLong("sum_age")
+                ));
+    }
+
+    /**
+     * 逐行回调 mooc_user_roles 的全部 (user_id, role)，不在内存中聚集结果
+     */
+    public void forEachUserRole(BiConsumer<Long, String> consumer) {
+        jdbcTemplate.getJdbcTemplate().query(
+                "SELECT user_id, role FROM mooc_user_roles",
+                rs -> {
+                    consumer.accept(rs.getLong("user_id"), rs.getString("role"));
+                });
+    }
+
+    /**
+     * 为 name_sort_key 为空的行（例如 data.sql 或外部工具直接写入的数据）补上排序键，
+     * 按主键分批读取和更新，每批一次 executeBatch
+     *
+     * @return 更新的行数
+     */
+    public int backfillNameSortKeys() {
+        int updated = 0;
+        long after = 0;
+        while (true) {
+            final List<Object[]> batch = new ArrayList<>(BACKFILL_BATCH_SIZE);
+            jdbcTemplate.query(
+                    "SELECT id, name FROM mooc_users WHERE name_sort_key IS NULL AND id > :after ORDER BY id LIMIT :limit",
+                    new MapSqlParameterSource().addValue("after", after).addValue("limit", BACKFILL_BATCH_SIZE),
+                    rs -> {
+                        batch.add(new Object[]{CollationKeys.SIMPLIFIED_CHINESE.sortKey(rs.getString("name")), rs.getLong("id")});
+                    });
+            if (batch.isEmpty()) {
+                return updated;
+            }
+            jdbcTemplate.getJdbcTemplate().batchUpdate("UPDATE mooc_users SET name_sort_key = ? WHERE id = ?", batch);
+            updated += batch.size();
+            after = (long) batch.get(batch.size() - 1)[1];
+        }
+    }
+
+    private static Object[] toArgs(AddUserDTO user) {
+        return new Object[]{
+                user.getUsername(),
+                user.getMobile(),
+                user.getName(),
+                CollationKeys.SIMPLIFIED_CHINESE.sortKey(user.getName()),
+                user.getEmail()
+        };
+    }
+
+    @AllArgsConstructor
+    @Getter
+    public static class ExistingKeys {
+        private final Set<String> usernames;
+        private final Set<String> mobiles;
+        private final Set<String> emails;
+    }
+}
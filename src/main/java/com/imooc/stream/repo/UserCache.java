@@ -0,0 +1,43 @@
+package com.imooc.stream.repo;
+
+import com.imooc.stream.config.UserCacheProperties;
+import com.imooc.stream.domain.dto.UserDTO;
+import com.imooc.stream.util.NearCache;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * 位于 {@link UserRepo#findDtoByUsername(String)} 前面的近端缓存，
+ * 所有修改用户的路径在写库之后都必须调用 {@link #invalidate(String)}。
+ * 返回的 DTO 在多个请求间共享，只能读取不能修改
+ */
+@Component
+public class UserCache {
+    private final NearCache<String, UserDTO> cache;
+
+    public UserCache(UserRepo userRepo, UserCacheProperties properties) {
+        this.cache = new NearCache<>(
+                userRepo::findDtoByUsername,
+                properties.getMaximumSize(),
+                properties.getTtl(),
+                properties.getNegativeTtl()
+        );
+    }
+
+    public Optional<UserDTO> findByUsername(String username) {
+        return cache.get(username);
+    }
+
+    public void invalidate(String username) {
+        cache.invalidate(username);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public NearCache.Stats stats() {
+        return cache.stats();
+    }
+}
@@ -0,0 +1,39 @@
+package com.imooc.stream.repo;
+
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * schema.sql 中 mooc_users 唯一约束与字段名的对应关系
+ */
+public final class UserConstraints {
+    private static final Map<String, String> FIELDS_BY_CONSTRAINT = Map.of(
+            "uk_mooc_users_username", "username",
+            "uk_mooc_users_mobile", "mobile",
+            "uk_mooc_users_email", "email"
+    );
+
+    private UserConstraints() {
+    }
+
+    /**
+     * 从违反唯一约束的异常中找出冲突的字段，不是唯一约束冲突时返回空
+     */
+    public static Optional<String> conflictingField(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause.getMessage() == null) {
+                continue;
+            }
+            final String message = cause.getMessage().toLowerCase(Locale.ROOT);
+            for (Map.Entry<String, String> entry : FIELDS_BY_CONSTRAINT.entrySet()) {
+                if (message.contains(entry.getKey())) {
+                    return Optional.of(entry.getValue());
+                }
+            }
+        }
+        return Optional.empty();
+    }
+}
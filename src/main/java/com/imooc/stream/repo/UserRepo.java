@@ -1,12 +1,79 @@
 package com.imooc.stream.repo;
 
 import com.imooc.stream.domain.User;
+import com.imooc.stream.domain.dto.RoleCountDTO;
+import com.imooc.stream.domain.dto.UserDTO;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
 public interface UserRepo extends JpaRepository<User, Long> {
     Optional<User> findOptionalByUsername(String username);
+
+    /**
+     * 只查询 UserDTO 需要的列并直接构造 DTO，结果不会成为托管实体，也就没有脏检查的开销
+     */
+    @Query("select new com.imooc.stream.domain.dto.UserDTO(u.username, u.mobile, u.name, " +
+            "case when u.enabled = true then '" + UserDTO.ENABLED + "' else '" + UserDTO.DISABLED + "' end) " +
+            "from User u where u.username = :username")
+    Optional<UserDTO> findDtoByUsername(@Param("username") String username);
+
+    /**
+     * 一条 UPDATE 语句完成修改，不预先加载实体
+     *
+     * @return 受影响的行数，0 表示用户不存在
+     */
+    @Transactional
+    @Modifying
+    @Query("update User u set u.mobile = :mobile, u.name = :name, u.nameSortKey = :nameSortKey, u.email = :email " +
+            "where u.username = :username")
+    int updateByUsername(@Param("username") String username,
+                         @Param("mobile") String mobile,
+                         @Param("name") String name,
+                         @Param("nameSortKey") String nameSortKey,
+                         @Param("email") String email);
+
+    /**
+     * 按主键做 seek 分页：Slice 只多取一行来判断是否还有下一页，不会执行 count 查询
+     */
+    Slice<User> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /**
+     * 拥有某个角色的用户，走 mooc_user_roles 上 (role, user_id) 索引；
+     * 返回用户的 roles 在首次访问时按 {@link org.hibernate.annotations.BatchSize} 批量加载
+     */
+    @Query(value = "select u from User u join u.roles r where r = :role",
+            countQuery = "select count(u) from User u join u.roles r where r = :role")
+    Page<User> findByRole(@Param("role") String role, Pageable pageable);
+
+    @Query("select new com.imooc.stream.domain.dto.RoleCountDTO(r, count(u)) " +
+            "from User u join u.roles r group by r order by r")
+    List<RoleCountDTO> countUsersByRole();
+
+    /**
+     * 以只进游标逐行读取全表，必须在事务内消费并关闭；调用方应在处理完每个实体后将其 detach，
+     * 否则持久化上下文会随行数一起增长
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("select u from User u order by u.id")
+    Stream<User> streamAll();
 }
@@ -0,0 +1,46 @@
+package com.imooc.stream.rest;
+
+import com.imooc.stream.service.LatencyMetrics;
+import com.imooc.stream.service.SqlMetrics;
+import com.imooc.stream.util.LatencyHistogram;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RequiredArgsConstructor
+@RequestMapping("/api")
+@RestController
+public class MetricsResource {
+    private final LatencyMetrics latencyMetrics;
+    private final SqlMetrics sqlMetrics;
+
+    /**
+     * UserResource 与 UserRepo 各方法自启动（或上次清零）以来的次数、失败率、吞吐量与延迟分位数（毫秒）
+     */
+    @GetMapping("/metrics/latency")
+    public Map<String, LatencyHistogram.Snapshot> getLatencyMetrics() {
+        return latencyMetrics.snapshot();
+    }
+
+    @DeleteMapping("/metrics/latency")
+    public void resetLatencyMetrics() {
+        latencyMetrics.reset();
+    }
+
+    /**
+     * 各接口每个请求平均执行的 SQL 语句数、读取行数与数据库时间（毫秒），以及超出语句预算的请求数
+     */
+    @GetMapping("/metrics/sql")
+    public Map<String, SqlMetrics.Snapshot> getSqlMetrics() {
+        return sqlMetrics.snapshot();
+    }
+
+    @DeleteMapping("/metrics/sql")
+    public void resetSqlMetrics() {
+        sqlMetrics.reset();
+    }
+}
@@ -0,0 +1,24 @@
+package com.imooc.stream.rest;
+
+import com.imooc.stream.util.ParallelExecutor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RequiredArgsConstructor
+@RequestMapping("/api")
+@RestController
+public class PoolResource {
+    private final ParallelExecutor parallelExecutor;
+
+    /**
+     * 各个并行池的线程数、排队任务数与窃取次数
+     */
+    @GetMapping("/pools")
+    public Map<String, ParallelExecutor.PoolStats> getPoolStats() {
+        return parallelExecutor.stats();
+    }
+}
@@ -0,0 +1,98 @@
+package com.imooc.stream.rest;
+
+import com.imooc.stream.domain.User;
+import com.imooc.stream.domain.dto.AddUserDTO;
+import com.imooc.stream.domain.dto.UpdateUserDTO;
+import com.imooc.stream.domain.dto.UserDTO;
+import com.imooc.stream.repo.UserCache;
+import com.imooc.stream.repo.UserRepo;
+import com.imooc.stream.service.UserWriteService;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * /api/users 的响应式版本：处理方法立即返回 Mono / Flux，请求转为 Servlet 异步模式，
+ * Tomcat 线程不再等待数据库。JPA 本身是阻塞的，所有数据库调用都放到有界的 jdbcScheduler 上执行，
+ * 同时在途的阻塞调用不超过它的线程数，其余请求排队而不占用线程
+ */
+@RequiredArgsConstructor
+@RequestMapping("/api/v2")
+@RestController
+public class ReactiveUserResource {
+    private static final int STREAM_PAGE_SIZE = 500;
+
+    private final UserRepo userRepo;
+    private final UserCache userCache;
+    private final UserWriteService userWriteService;
+    private final Scheduler jdbcScheduler;
+
+    @GetMapping("/users/{username}")
+    public Mono<ResponseEntity<UserDTO>> getUserByUsername(@PathVariable String username) {
+        return blocking(() -> userCache.findByUsername(username))
+                .map(user -> user.map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build()));
+    }
+
+    /**
+     * 以 application/stream+json 请求时逐行推送全部用户；按主键分页读取，每页不超过 limit 行，
+     * 一次只预取一页，客户端读得慢时不会继续查询下一页。以 application/json 请求时收集为一个数组
+     */
+    @GetMapping(value = "/users", produces = {MediaType.APPLICATION_STREAM_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<UserDTO> getAllUsers(@RequestParam(defaultValue = "" + Long.MAX_VALUE) long limit) {
+        if (limit < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit 必须大于 0");
+        }
+        val pageSize = (int) Math.min(limit, STREAM_PAGE_SIZE);
+        return pageAfter(0L, pageSize)
+                .expand(slice -> slice.hasNext() && limit > pageSize
+                        ? pageAfter(slice.getContent().get(slice.getNumberOfElements() - 1).getId(), pageSize)
+                        : Mono.empty())
+                .concatMapIterable(Slice::getContent, 1)
+                .take(limit)
+                .map(UserDTO::of);
+    }
+
+    @PostMapping("/users")
+    public Mono<ResponseEntity<UserDTO>> addUser(@RequestBody AddUserDTO addUserDTO) {
+        return blocking(() -> ResponseEntity.ok(UserDTO.of(userWriteService.add(addUserDTO))));
+    }
+
+    @PutMapping("/users/{username}")
+    public Mono<ResponseEntity<Void>> updateUserByUsername(@PathVariable String username,
+                                                           @RequestBody UpdateUserDTO updateUserDTO) {
+        return blocking(() -> userWriteService.update(username, updateUserDTO)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/users/{username}")
+    public Mono<ResponseEntity<Void>> deleteUserByUsername(@PathVariable String username) {
+        return blocking(() -> {
+            userWriteService.delete(List.of(username));
+            return ResponseEntity.ok().build();
+        });
+    }
+
+    private Mono<Slice<User>> pageAfter(long id, int pageSize) {
+        return blocking(() -> userRepo.findByIdGreaterThanOrderByIdAsc(id, PageRequest.of(0, pageSize)));
+    }
+
+    /**
+     * 订阅时才在 jdbcScheduler 上执行阻塞调用
+     */
+    private <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(jdbcScheduler);
+    }
+}
@@ -0,0 +1,63 @@
+package com.imooc.stream.rest;
+
+import com.imooc.stream.domain.PageableResult;
+import com.imooc.stream.domain.User;
+import com.imooc.stream.domain.dto.RoleCountDTO;
+import com.imooc.stream.domain.dto.RoleQueryResultDTO;
+import com.imooc.stream.repo.UserRepo;
+import com.imooc.stream.service.UserRoleIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.data.domain.Pageable;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@Slf4j
+@RequiredArgsConstructor
+@RequestMapping("/api")
+@RestController
+public class RoleResource {
+    private final UserRepo userRepo;
+    private final UserRoleIndex userRoleIndex;
+
+    /**
+     * 各角色的用户数，一条 GROUP BY 查询完成
+     */
+    @GetMapping("/roles")
+    public List<RoleCountDTO> countUsersByRole() {
+        return userRepo.countUsersByRole();
+    }
+
+    /**
+     * 在内存位图上做角色集合运算，不访问数据库，例如
+     * /api/roles/query?all=ROLE_ADMIN&amp;none=ROLE_USER&amp;enabled=true&amp;minAge=41
+     */
+    @GetMapping("/roles/query")
+    public RoleQueryResultDTO queryUsersByRoles(@RequestParam(defaultValue = "") List<String> all,
+                                                @RequestParam(defaultValue = "") List<String> any,
+                                                @RequestParam(defaultValue = "") List<String> none,
+                                                @RequestParam(required = false) Boolean enabled,
+                                                @RequestParam(required = false) Integer minAge,
+                                                @RequestParam(required = false) Integer maxAge,
+                                                @RequestParam(defaultValue = "100") int limit) {
+        val result = userRoleIndex.query(all, any, none, enabled, minAge, maxAge);
+        val ids = new long[(int) Math.min(Math.max(limit, 0), result.getLongCardinality())];
+        val iterator = result.getIntIterator();
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = Integer.toUnsignedLong(iterator.next());
+        }
+        return new RoleQueryResultDTO(result.getLongCardinality(), ids);
+    }
+
+    @GetMapping("/roles/{role}/users")
+    public PageableResult<User> getUsersByRole(@PathVariable String role, Pageable pageable) {
+        val userPageable = userRepo.findByRole(role, pageable);
+        return new PageableResult<>(userPageable.getTotalElements(), userPageable.getContent());
+    }
+}
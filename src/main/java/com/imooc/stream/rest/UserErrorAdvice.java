@@ -0,0 +1,29 @@
+package com.imooc.stream.rest;
+
+import com.imooc.stream.domain.dto.FieldErrorDTO;
+import com.imooc.stream.repo.UserConstraints;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * /api 与 /api/v2 用户接口共用的错误转换，响应式版本中 Mono 里抛出的异常也会经过这里
+ */
+@Slf4j
+@RestControllerAdvice(assignableTypes = {UserResource.class, ReactiveUserResource.class})
+public class UserErrorAdvice {
+
+    /**
+     * 违反唯一约束返回 409 并指出冲突的字段，其他约束（例如非空）返回 400
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<FieldErrorDTO> handleDataIntegrityViolation(DataIntegrityViolationException e) {
+        log.debug("data integrity violation: {}", e.getMessage());
+        return UserConstraints.conflictingField(e)
+                .map(field -> ResponseEntity.status(HttpStatus.CONFLICT).body(new FieldErrorDTO(field, field + " 已存在")))
+                .orElse(ResponseEntity.badRequest().body(new FieldErrorDTO(null, "数据不完整或不合法")));
+    }
+}
@@ -1,95 +1,295 @@
 package com.imooc.stream.rest;
 
+import com.imooc.stream.domain.CursorResult;
 import com.imooc.stream.domain.PageableResult;
 import com.imooc.stream.domain.User;
 import com.imooc.stream.domain.dto.AddUserDTO;
+import com.imooc.stream.domain.dto.AgeBucketDTO;
+import com.imooc.stream.domain.dto.BulkDeleteResultDTO;
+import com.imooc.stream.domain.dto.BulkDeleteUserDTO;
+import com.imooc.stream.domain.dto.ImportResultDTO;
+import com.imooc.stream.domain.dto.LiveUserStatsDTO;
+import com.imooc.stream.domain.dto.MobileLookupDTO;
 import com.imooc.stream.domain.dto.UpdateUserDTO;
 import com.imooc.stream.domain.dto.UserDTO;
+import com.imooc.stream.repo.UserBatchRepo;
+import com.imooc.stream.repo.UserCache;
 import com.imooc.stream.repo.UserRepo;
-import com.imooc.stream.util.Try;
+import com.imooc.stream.service.InvalidCsvException;
+import com.imooc.stream.service.UserExportService;
+import com.imooc.stream.service.UserImportService;
+import com.imooc.stream.service.UserMobileIndex;
+import com.imooc.stream.service.UserSearchIndex;
+import com.imooc.stream.service.UserStatsService;
+import com.imooc.stream.service.UserWriteService;
+import com.imooc.stream.util.Cursors;
+import com.imooc.stream.util.NearCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.util.Pair;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.server.ResponseStatusException;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
 import java.util.Optional;
-import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @RequiredArgsConstructor
 @RequestMapping("/api")
 @RestController
 public class UserResource {
+    private static final int MAX_CURSOR_PAGE_SIZE = 2000;
+    private static final int DELETE_CHUNK_SIZE = 1000;
+    private static final int MAX_SEARCH_LIMIT = 100;
+    private static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    private static final String TEXT_CSV_VALUE = "text/csv";
+    private static final String PREFER = "Prefer";
+    private static final String PREFERENCE_APPLIED = "Preference-Applied";
+    private static final String RETURN_REPRESENTATION = "return=representation";
+
     private final UserRepo userRepo;
+    private final UserBatchRepo userBatchRepo;
+    private final UserCache userCache;
+    private final UserImportService userImportService;
+    private final UserExportService userExportService;
+    private final UserStatsService userStatsService;
+    private final UserSearchIndex userSearchIndex;
+    private final UserMobileIndex userMobileIndex;
+    private final UserWriteService userWriteService;
 
+    /**
+     * sort=name 按简体中文（拼音）顺序排序，由数据库按 name_sort_key 索引排序和分页
+     */
     @GetMapping("/users")
     public PageableResult<User> getAllUsers(Pageable pageable) {
-        val userPageable = userRepo.findAll(pageable);
+        val userPageable = userRepo.findAll(sortNameByCollationKey(pageable));
         return new PageableResult<>(userPageable.getTotalElements(), userPageable.getContent());
     }
 
+    /**
+     * 把排序中的 name 换成 nameSortKey，并以 id 作为最后的排序条件，使同名用户在各页之间的顺序稳定
+     */
+    private static Pageable sortNameByCollationKey(Pageable pageable) {
+        val sort = pageable.getSort();
+        if (sort.getOrderFor("name") == null) {
+            return pageable;
+        }
+        val orders = sort.stream()
+                .map(order -> "name".equals(order.getProperty()) ? order.withProperty("nameSortKey") : order)
+                .collect(Collectors.toList());
+        if (sort.getOrderFor("id") == null) {
+            orders.add(Sort.Order.asc("id"));
+        }
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by(orders));
+    }
+
+    /**
+     * 游标分页：按主键 seek，第一页传空的 after，之后原样回传上一页的 next，
+     * 无论翻到第几页代价都相同，也不再计算总数
+     */
+    @GetMapping(value = "/users", params = "after")
+    public CursorResult<User> getUsersAfter(@RequestParam String after, @RequestParam(defaultValue = "20") int size) {
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size 必须在 1 到 " + MAX_CURSOR_PAGE_SIZE + " 之间");
+        }
+        val slice = userRepo.findByIdGreaterThanOrderByIdAsc(decodeCursor(after), PageRequest.of(0, size));
+        val users = slice.getContent();
+        val next = slice.hasNext() ? Cursors.encode(users.get(users.size() - 1).getId()) : null;
+        return new CursorResult<>(next, users);
+    }
+
+    /**
+     * 全表导出，format 为 ndjson（默认）或 csv，行被直接写入响应流
+     */
+    @GetMapping("/users/export")
+    public void exportUsers(@RequestParam(defaultValue = "ndjson") String format, HttpServletResponse response) throws IOException {
+        switch (format) {
+            case "ndjson":
+                response.setContentType(APPLICATION_NDJSON_VALUE + ";charset=UTF-8");
+                response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"mooc_users.ndjson\"");
+                userExportService.exportNdjson(response.getOutputStream());
+                break;
+            case "csv":
+                response.setContentType(TEXT_CSV_VALUE + ";charset=UTF-8");
+                response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"mooc_users.csv\"");
+                userExportService.exportCsv(response.getOutputStream());
+                break;
+            default:
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "不支持的导出格式: " + format);
+        }
+    }
+
+    /**
+     * 按年龄段统计人数、最小、最大、平均年龄与年龄总和，汇总在数据库中完成
+     */
+    @GetMapping("/users/stats")
+    public List<AgeBucketDTO> getUserStats(@RequestParam(defaultValue = "10") int width,
+                                           @RequestParam(required = false) Boolean enabled) {
+        if (width < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "width 必须大于 0");
+        }
+        return userBatchRepo.summarizeByAgeBucket(width, enabled);
+    }
+
+    /**
+     * 与 /users/stats 相同的年龄段汇总以及激活/禁用人数，但来自内存中增量维护的计数，不访问数据库，适合高频轮询
+     */
+    @GetMapping("/users/stats/live")
+    public LiveUserStatsDTO getLiveUserStats(@RequestParam(defaultValue = "10") int width) {
+        if (width < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "width 必须大于 0");
+        }
+        return userStatsService.stats(width);
+    }
+
+    /**
+     * 搜索框自动补全：按用户名、姓名、姓名拼音首字母、手机号前缀或后几位做前缀匹配，查询只访问内存索引
+     */
+    @GetMapping("/users/search")
+    public List<UserDTO> searchUsers(@RequestParam String q, @RequestParam(defaultValue = "10") int limit) {
+        if (q.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "搜索关键字不能为空");
+        }
+        if (limit < 1 || limit > MAX_SEARCH_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit 必须在 1 到 " + MAX_SEARCH_LIMIT + " 之间");
+        }
+        return userSearchIndex.search(q, limit);
+    }
+
+    /**
+     * 按手机号查用户 id，只访问内存索引
+     */
+    @GetMapping("/users/by-mobile/{mobile}")
+    public ResponseEntity<MobileLookupDTO> getUserIdByMobile(@PathVariable String mobile) {
+        val id = userMobileIndex.findIdByMobile(mobile);
+        if (id.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(new MobileLookupDTO(mobile, id.getAsLong()));
+    }
+
     @GetMapping("/users/{username}")
     public ResponseEntity<UserDTO> getUserByUsername(@PathVariable String username) {
-        return userRepo.findOptionalByUsername(username)
-                .map(mapUserToDto())
+        return userCache.findByUsername(username)
+                .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * 并发创建同名用户时只有一个能成功，其余得到 409
+     */
     @PostMapping("/users")
     public ResponseEntity<UserDTO> addUser(@RequestBody AddUserDTO addUserDTO) {
-        if(userRepo.findOptionalByUsername(addUserDTO.getUsername()).isPresent()) {
-            throw new HttpClientErrorException(HttpStatus.BAD_REQUEST);
+        return ResponseEntity.ok(UserDTO.of(userWriteService.add(addUserDTO)));
+    }
+
+    /**
+     * 批量导入，请求体为 NDJSON（每行一个 AddUserDTO）或带表头的 CSV，边读边写入，不会整体缓存在内存里
+     */
+    @PostMapping(value = "/users/import", consumes = APPLICATION_NDJSON_VALUE)
+    public ImportResultDTO importUsersFromNdjson(InputStream body) {
+        return userImportService.importNdjson(body);
+    }
+
+    @PostMapping(value = "/users/import", consumes = TEXT_CSV_VALUE)
+    public ImportResultDTO importUsersFromCsv(InputStream body) {
+        try {
+            return userImportService.importCsv(body);
+        } catch (InvalidCsvException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
         }
-        val toAdd = User.builder()
-                .username(addUserDTO.getUsername())
-                .name(addUserDTO.getName())
-                .mobile(addUserDTO.getMobile())
-                .email(addUserDTO.getEmail())
-                .build();
-        val saved = userRepo.save(toAdd);
-        return mapUserToDto().apply(saved);
     }
 
+    /**
+     * 一条 UPDATE 完成修改，默认返回 204；请求头带 Prefer: return=representation 时才重新读取并返回修改后的用户
+     */
     @PutMapping("/users/{username}")
-    public ResponseEntity<UserDTO> updateUserByUsername(@PathVariable String username, @RequestBody UpdateUserDTO updateUserDTO) {
-        return userRepo.findOptionalByUsername(username)
-                .map(saveUser(updateUserDTO))
-                .map(mapUserToDto())
+    public ResponseEntity<UserDTO> updateUserByUsername(@PathVariable String username,
+                                                        @RequestBody UpdateUserDTO updateUserDTO,
+                                                        @RequestHeader(value = PREFER, required = false) String prefer) {
+        if (!userWriteService.update(username, updateUserDTO)) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!prefersRepresentation(prefer)) {
+            return ResponseEntity.noContent().build();
+        }
+        return userCache.findByUsername(username)
+                .map(dto -> ResponseEntity.ok().header(PREFERENCE_APPLIED, RETURN_REPRESENTATION).body(dto))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @DeleteMapping("/users/{username}")
     public void deleteUserByUsername(@PathVariable String username) {
-        userRepo.findOptionalByUsername(username)
-                .map(User::getId)
-                .ifPresent(userRepo::deleteById);
-    }
-
-    private Function<User, ResponseEntity<UserDTO>> mapUserToDto() {
-        return user -> {
-            val dto = UserDTO.builder()
-                    .username(user.getUsername())
-                    .name(user.getName())
-                    .enabled(user.isEnabled() ? "激活" : "禁用")
-                    .mobile(user.getMobile())
-                    .build();
-            return ResponseEntity.ok().body(dto);
-        };
-    }
-
-    private Function<User, User> saveUser(UpdateUserDTO updateUserDTO) {
-        return user -> {
-            val toSave = user
-                    .withMobile(updateUserDTO.getMobile())
-                    .withName(updateUserDTO.getName())
-                    .withEmail(updateUserDTO.getEmail());
-            return userRepo.save(toSave);
-        };
+        userWriteService.delete(List.of(username));
+    }
+
+    /**
+     * 批量删除：按用户名列表（每 1000 个一条 DELETE ... IN）或按 enabled/age 条件（一条 DELETE）
+     */
+    @PostMapping("/users/bulk-delete")
+    public BulkDeleteResultDTO deleteUsers(@RequestBody BulkDeleteUserDTO bulkDeleteUserDTO) {
+        val usernames = bulkDeleteUserDTO.getUsernames();
+        if (usernames != null && !usernames.isEmpty()) {
+            long deleted = 0;
+            for (int from = 0; from < usernames.size(); from += DELETE_CHUNK_SIZE) {
+                val chunk = usernames.subList(from, Math.min(from + DELETE_CHUNK_SIZE, usernames.size()));
+                deleted += userWriteService.delete(chunk).size();
+            }
+            return new BulkDeleteResultDTO(deleted);
+        }
+        if (bulkDeleteUserDTO.getEnabled() == null
+                && bulkDeleteUserDTO.getMinAge() == null
+                && bulkDeleteUserDTO.getMaxAge() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "至少需要一个删除条件");
+        }
+        val deleted = userWriteService.deleteByFilter(
+                bulkDeleteUserDTO.getEnabled(),
+                bulkDeleteUserDTO.getMinAge(),
+                bulkDeleteUserDTO.getMaxAge()
+        );
+        return new BulkDeleteResultDTO(deleted.size());
+    }
+
+    @GetMapping("/cache/users")
+    public NearCache.Stats getUserCacheStats() {
+        return userCache.stats();
+    }
+
+    /**
+     * Prefer 请求头（RFC 7240）可以包含逗号分隔的多个偏好
+     */
+    private static boolean prefersRepresentation(String prefer) {
+        if (prefer == null) {
+            return false;
+        }
+        for (String preference : prefer.split(",")) {
+            if (RETURN_REPRESENTATION.equalsIgnoreCase(preference.trim())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long decodeCursor(String cursor) {
+        if (cursor.isEmpty()) {
+            return 0L;
+        }
+        try {
+            return Cursors.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "无效的游标", e);
+        }
     }
 }
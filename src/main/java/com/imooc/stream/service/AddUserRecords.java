@@ -0,0 +1,222 @@
+package com.imooc.stream.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.imooc.stream.domain.dto.AddUserDTO;
+import com.imooc.stream.util.Try;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.val;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * 逐行解析上传的用户记录，任何时刻只持有当前一行，解析失败的行以 failure 的形式返回而不是中断整个上传
+ */
+final class AddUserRecords {
+    private static final List<String> CSV_COLUMNS = List.of("username", "mobile", "name", "email");
+
+    private AddUserRecords() {
+    }
+
+    /**
+     * 每行一个 JSON 对象，空行忽略
+     */
+    static Iterator<Record> ndjson(BufferedReader reader, ObjectMapper objectMapper) {
+        return new LineIterator(reader) {
+            @Override
+            Try<AddUserDTO> parse(String line) {
+                try {
+                    final AddUserDTO user = objectMapper.readValue(line, AddUserDTO.class);
+                    // 字面量 null 能被解析，但不是用户记录
+                    return user == null ? Try.expected("每行必须是一个 JSON 对象") : Try.success(user);
+                } catch (JsonProcessingException e) {
+                    return Try.expected("无法解析的 JSON: " + e.getOriginalMessage());
+                }
+            }
+        };
+    }
+
+    /**
+     * 第一行必须是表头，列名为 username、mobile、name、email，顺序不限；
+     * 字段可以用双引号包裹，引号内可以有逗号、两个双引号表示的引号以及换行（\n、\r\n 或 \r，原样保留）。
+     * 记录的行号是它开始的那一行
+     */
+    static Iterator<Record> csv(BufferedReader reader) {
+        final Map<String, Integer> columns = new HashMap<>();
+        return new LineIterator(reader) {
+            /**
+             * 按字符读取，引号外的换行才结束一条记录
+             */
+            @Override
+            String readRecord() throws IOException {
+                final StringBuilder record = new StringBuilder();
+                boolean quoted = false;
+                int c;
+                while ((c = reader.read()) != -1) {
+                    if (!quoted && (c == '\n' || c == '\r')) {
+                        if (c == '\r') {
+                            reader.mark(1);
+                            if (reader.read() != '\n') {
+                                reader.reset();
+                            }
+                        }
+                        lineNumber++;
+                        return record.toString();
+                    }
+                    if (c == '"') {
+                        quoted = !quoted;
+                    } else if (c == '\n') {
+                        lineNumber++;
+                    }
+                    record.append((char) c);
+                }
+                if (record.length() == 0) {
+                    return null;
+                }
+                lineNumber++;
+                return record.toString();
+            }
+
+            @Override
+            Try<AddUserDTO> parse(String line) {
+                try {
+                    val cells = splitCsvLine(line);
+                    if (columns.isEmpty()) {
+                        return readHeader(cells);
+                    }
+                    if (cells.size() != columns.size()) {
+                        return Try.expected("列数应为 " + columns.size() + "，实际为 " + cells.size());
+                    }
+                    return Try.success(new AddUserDTO(
+                            cells.get(columns.get("username")),
+                            cells.get(columns.get("mobile")),
+                            cells.get(columns.get("name")),
+                            cells.get(columns.get("email"))
+                    ));
+                } catch (IllegalArgumentException e) {
+                    return Try.failure(e);
+                }
+            }
+
+            private Try<AddUserDTO> readHeader(List<String> cells) {
+                for (int i = 0; i < cells.size(); i++) {
+                    columns.put(cells.get(i).trim().toLowerCase(Locale.ROOT), i);
+                }
+                if (!columns.keySet().containsAll(CSV_COLUMNS)) {
+                    throw new InvalidCsvException("CSV 表头必须包含 " + CSV_COLUMNS);
+                }
+                return null;
+            }
+        };
+    }
+
+    static List<String> splitCsvLine(String line) {
+        final List<String> cells = new ArrayList<>();
+        final StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    cell.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    cell.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                cells.add(cell.toString());
+                cell.setLength(0);
+            } else {
+                cell.append(c);
+            }
+        }
+        if (quoted) {
+            throw new Try.ExpectedFailure("引号没有闭合");
+        }
+        cells.add(cell.toString());
+        return cells;
+    }
+
+    @AllArgsConstructor
+    @Getter
+    static class Record {
+        private final long line;
+        private final Try<AddUserDTO> user;
+    }
+
+    /**
+     * parse 返回 null 表示该行不是数据行（例如 CSV 表头），直接跳过
+     */
+    private abstract static class LineIterator implements Iterator<Record> {
+        final BufferedReader reader;
+        /**
+         * 已经读过的物理行数
+         */
+        long lineNumber;
+        private Record next;
+
+        LineIterator(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        abstract Try<AddUserDTO> parse(String line);
+
+        /**
+         * 读取下一条记录的原文并累加 lineNumber，没有更多内容时返回 null；默认一行一条记录
+         */
+        String readRecord() throws IOException {
+            val line = reader.readLine();
+            if (line != null) {
+                lineNumber++;
+            }
+            return line;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (next == null) {
+                    val start = lineNumber + 1;
+                    val line = readRecord();
+                    if (line == null) {
+                        return false;
+                    }
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    val parsed = parse(line);
+                    if (parsed != null) {
+                        next = new Record(start, parsed);
+                    }
+                }
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public Record next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            val record = next;
+            next = null;
+            return record;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.imooc.stream.service;
+
+/**
+ * 上传的 CSV 整体不可用（例如表头缺少必需的列），与单行数据的错误不同，整个导入都无法进行
+ */
+public class InvalidCsvException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public InvalidCsvException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,77 @@
+package com.imooc.stream.service;
+
+import com.imooc.stream.util.LatencyHistogram;
+import lombok.val;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * 为 UserResource 的每个公开方法和 UserRepo 的每个方法记录延迟直方图，键为 "类名.方法名"，重载方法共用一个。
+ * 每次调用只有一次 ConcurrentHashMap 查找和一次无锁记录，不需要外部的指标系统
+ */
+@Aspect
+@Component
+public class LatencyMetrics {
+    private static final String RESOURCE = "UserResource.";
+    private static final String REPO = "UserRepo.";
+
+    private final Map<Method, LatencyHistogram> histogramsByMethod = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> histogramsByName = new ConcurrentSkipListMap<>();
+
+    @Around("execution(public * com.imooc.stream.rest.UserResource.*(..))")
+    public Object timeResource(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(RESOURCE, joinPoint);
+    }
+
+    /**
+     * UserRepo+ 同时匹配从 JpaRepository 继承的 findAll、save 等方法
+     */
+    @Around("execution(* com.imooc.stream.repo.UserRepo+.*(..))")
+    public Object timeRepo(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(REPO, joinPoint);
+    }
+
+    /**
+     * 按名称排序，各直方图分别取快照
+     */
+    public Map<String, LatencyHistogram.Snapshot> snapshot() {
+        val result = new LinkedHashMap<String, LatencyHistogram.Snapshot>();
+        histogramsByName.forEach((name, histogram) -> result.put(name, histogram.snapshot()));
+        return result;
+    }
+
+    public void reset() {
+        histogramsByName.values().forEach(LatencyHistogram::reset);
+    }
+
+    private Object time(String prefix, ProceedingJoinPoint joinPoint) throws Throwable {
+        val histogram = histogramFor(prefix, ((MethodSignature) joinPoint.getSignature()).getMethod());
+        val start = System.nanoTime();
+        boolean failed = true;
+        try {
+            val result = joinPoint.proceed();
+            failed = false;
+            return result;
+        } finally {
+            histogram.record(System.nanoTime() - start, failed);
+        }
+    }
+
+    private LatencyHistogram histogramFor(String prefix, Method method) {
+        val histogram = histogramsByMethod.get(method);
+        if (histogram != null) {
+            return histogram;
+        }
+        return histogramsByMethod.computeIfAbsent(method,
+                m -> histogramsByName.computeIfAbsent(prefix + m.getName(), name -> new LatencyHistogram()));
+    }
+}
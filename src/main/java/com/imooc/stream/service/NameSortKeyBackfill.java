@@ -0,0 +1,26 @@
+package com.imooc.stream.service;
+
+import com.imooc.stream.repo.UserBatchRepo;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+/**
+ * 启动时（开始接收请求之前）为缺少 name_sort_key 的用户补上排序键，保证 sort=name 从第一个请求起就是完整的
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class NameSortKeyBackfill implements SmartInitializingSingleton {
+    private final UserBatchRepo userBatchRepo;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        val updated = userBatchRepo.backfillNameSortKeys();
+        if (updated > 0) {
+            log.debug("backfilled name_sort_key for {} users", updated);
+        }
+    }
+}
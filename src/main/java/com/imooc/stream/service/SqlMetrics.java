@@ -0,0 +1,81 @@
+package com.imooc.stream.service;
+
+import com.imooc.stream.util.SqlStats;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.val;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按接口（HTTP 方法 + 路径模板）汇总每个请求执行的 SQL 语句数、读取行数和数据库时间，所有计数都是无锁的
+ */
+@Service
+public class SqlMetrics {
+    private final Map<String, EndpointCounters> countersByEndpoint = new ConcurrentSkipListMap<>();
+
+    public void record(String endpoint, SqlStats stats) {
+        countersByEndpoint.computeIfAbsent(endpoint, key -> new EndpointCounters()).add(stats);
+    }
+
+    public Map<String, Snapshot> snapshot() {
+        val result = new LinkedHashMap<String, Snapshot>();
+        countersByEndpoint.forEach((endpoint, counters) -> result.put(endpoint, counters.snapshot()));
+        return result;
+    }
+
+    public void reset() {
+        countersByEndpoint.clear();
+    }
+
+    private static final class EndpointCounters {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder overBudget = new LongAdder();
+        private final LongAccumulator maxStatements = new LongAccumulator(Math::max, 0);
+
+        void add(SqlStats stats) {
+            requests.increment();
+            statements.add(stats.getStatements());
+            rows.add(stats.getRows());
+            nanos.add(stats.getNanos());
+            maxStatements.accumulate(stats.getStatements());
+            if (stats.isOverBudget()) {
+                overBudget.increment();
+            }
+        }
+
+        Snapshot snapshot() {
+            val count = requests.sum();
+            return new Snapshot(
+                    count,
+                    count == 0 ? 0 : (double) statements.sum() / count,
+                    maxStatements.get(),
+                    count == 0 ? 0 : (double) rows.sum() / count,
+                    count == 0 ? 0 : nanos.sum() / 1e6 / count,
+                    overBudget.sum()
+            );
+        }
+    }
+
+    /**
+     * 均为每个请求的平均值，时间单位为毫秒
+     */
+    @AllArgsConstructor
+    @Getter
+    public static class Snapshot {
+        private final long requests;
+        private final double statements;
+        private final long maxStatements;
+        private final double rows;
+        private final double dbTime;
+        private final long overBudget;
+    }
+}
@@ -0,0 +1,121 @@
+package com.imooc.stream.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.imooc.stream.domain.User;
+import com.imooc.stream.repo.UserRepo;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * 全表导出：游标逐行读取、逐行写出并立即 detach，堆内存占用与表的行数无关
+ */
+@RequiredArgsConstructor
+@Service
+public class UserExportService {
+    private static final String CSV_HEADER = "id,username,mobile,name,email,enabled,age\n";
+
+    private final UserRepo userRepo;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 按主键顺序把每个用户交给 consumer，consumer 返回后该实体即被 detach，不要在之后访问它的延迟加载属性
+     */
+    @Transactional(readOnly = true)
+    public void forEachUser(Consumer<User> consumer) {
+        try (val users = userRepo.streamAll()) {
+            users.forEach(user -> {
+                consumer.accept(user);
+                entityManager.detach(user);
+            });
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportNdjson(OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            generator.setRootValueSeparator(null);
+            forEachUser(user -> {
+                try {
+                    writeJson(generator, user);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportCsv(OutputStream out) throws IOException {
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+            writer.write(CSV_HEADER);
+            forEachUser(user -> {
+                try {
+                    writeCsv(writer, user);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    private static void writeJson(JsonGenerator generator, User user) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", user.getId());
+        generator.writeStringField("username", user.getUsername());
+        generator.writeStringField("mobile", user.getMobile());
+        generator.writeStringField("name", user.getName());
+        generator.writeStringField("email", user.getEmail());
+        generator.writeBooleanField("enabled", user.isEnabled());
+        generator.writeNumberField("age", user.getAge());
+        generator.writeEndObject();
+    }
+
+    private static void writeCsv(Writer writer, User user) throws IOException {
+        writer.write(String.valueOf(user.getId()));
+        writer.write(',');
+        writeCsvCell(writer, user.getUsername());
+        writer.write(',');
+        writeCsvCell(writer, user.getMobile());
+        writer.write(',');
+        writeCsvCell(writer, user.getName());
+        writer.write(',');
+        writeCsvCell(writer, user.getEmail());
+        writer.write(',');
+        writer.write(user.isEnabled() ? "true" : "false");
+        writer.write(',');
+        writer.write(String.valueOf(user.getAge()));
+        writer.write('\n');
+    }
+
+    /**
+     * 按 RFC 4180，包含逗号、双引号、\n 或 \r 的字段用双引号包裹
+     */
+    private static void writeCsvCell(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,210 @@
+package com.imooc.stream.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.imooc.stream.domain.UserChangedEvent;
+import com.imooc.stream.domain.dto.AddUserDTO;
+import com.imooc.stream.domain.dto.ImportResultDTO;
+import com.imooc.stream.repo.UserBatchRepo;
+import com.imooc.stream.repo.UserCache;
+import com.imooc.stream.repo.UserConstraints;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * 流式批量导入用户：边读边解析，每攒够一批就做一次查重、一次批量插入，
+ * 内存占用只和批大小有关，与上传内容的大小无关。
+ * 每批插入后查回这批用户的 id，发布一个 {@link UserChangedEvent#created(List)}，内存索引按批增量更新
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class UserImportService {
+    static final int BATCH_SIZE = 500;
+    static final int MAX_REPORTED_FAILURES = 1000;
+
+    private final UserBatchRepo userBatchRepo;
+    private final UserCache userCache;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ImportResultDTO importNdjson(InputStream body) {
+        return importRecords(AddUserRecords.ndjson(reader(body), objectMapper));
+    }
+
+    public ImportResultDTO importCsv(InputStream body) {
+        return importRecords(AddUserRecords.csv(reader(body)));
+    }
+
+    private ImportResultDTO importRecords(Iterator<AddUserRecords.Record> records) {
+        val progress = new Progress();
+        final List<AddUserRecords.Record> batch = new ArrayList<>(BATCH_SIZE);
+        while (records.hasNext()) {
+            val record = records.next();
+            progress.total++;
+            if (record.getUser().isFailure()) {
+                progress.fail(record.getLine(), null, record.getUser().getCause().getMessage());
+                continue;
+            }
+            batch.add(record);
+            if (batch.size() == BATCH_SIZE) {
+                flush(batch, progress);
+                batch.clear();
+            }
+        }
+        flush(batch, progress);
+        log.debug("imported {} of {} users", progress.imported, progress.total);
+        return new ImportResultDTO(progress.total, progress.imported, progress.failed, progress.failures);
+    }
+
+    private void flush(List<AddUserRecords.Record> batch, Progress progress) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        final List<AddUserRecords.Record> valid = new ArrayList<>(batch.size());
+        final Set<String> usernames = new HashSet<>();
+        final Set<String> mobiles = new HashSet<>();
+        final Set<String> emails = new HashSet<>();
+        for (AddUserRecords.Record record : batch) {
+            val user = record.getUser().get();
+            val invalid = validate(user);
+            if (invalid.isPresent()) {
+                progress.fail(record.getLine(), invalid.get(), "缺失或超长");
+            } else if (usernames.contains(user.getUsername())) {
+                progress.fail(record.getLine(), "username", "与本次上传中的其他行重复");
+            } else if (mobiles.contains(user.getMobile())) {
+                progress.fail(record.getLine(), "mobile", "与本次上传中的其他行重复");
+            } else if (emails.contains(user.getEmail())) {
+                progress.fail(record.getLine(), "email", "与本次上传中的其他行重复");
+            } else {
+                // 三个键都不重复才占用，被拒绝的行不影响后面的行
+                usernames.add(user.getUsername());
+                mobiles.add(user.getMobile());
+                emails.add(user.getEmail());
+                valid.add(record);
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+        val existing = userBatchRepo.findExistingKeys(usernames, mobiles, emails);
+        final List<AddUserRecords.Record> toInsert = new ArrayList<>(valid.size());
+        for (AddUserRecords.Record record : valid) {
+            val user = record.getUser().get();
+            if (existing.getUsernames().contains(user.getUsername())) {
+                progress.fail(record.getLine(), "username", "已存在");
+            } else if (existing.getMobiles().contains(user.getMobile())) {
+                progress.fail(record.getLine(), "mobile", "已存在");
+            } else if (existing.getEmails().contains(user.getEmail())) {
+                progress.fail(record.getLine(), "email", "已存在");
+            } else {
+                toInsert.add(record);
+            }
+        }
+        insert(toInsert, progress);
+    }
+
+    /**
+     * 整批在一个事务里提交；如果查重之后有并发写入导致唯一约束冲突，整批回滚后逐行重试以定位失败的行
+     */
+    private void insert(List<AddUserRecords.Record> records, Progress progress) {
+        if (records.isEmpty()) {
+            return;
+        }
+        val users = records.stream().map(record -> record.getUser().get()).collect(toList());
+        try {
+            transactionTemplate.executeWithoutResult(status -> userBatchRepo.batchInsert(users));
+            progress.imported += users.size();
+            publishCreated(users);
+            return;
+        } catch (DataIntegrityViolationException e) {
+            log.debug("batch insert conflicted, retrying row by row: {}", e.getMessage());
+        }
+        final List<AddUserDTO> inserted = new ArrayList<>(records.size());
+        for (AddUserRecords.Record record : records) {
+            val user = record.getUser().get();
+            try {
+                userBatchRepo.insert(user);
+                progress.imported++;
+                inserted.add(user);
+            } catch (DataIntegrityViolationException e) {
+                // 与 UserResource 相同：只有违反唯一约束才是“已存在”，其他约束是数据本身不合法
+                val field = UserConstraints.conflictingField(e);
+                if (field.isPresent()) {
+                    progress.fail(record.getLine(), field.get(), "已存在");
+                } else {
+                    progress.fail(record.getLine(), null, "数据不完整或不合法");
+                }
+            }
+        }
+        publishCreated(inserted);
+    }
+
+    private void publishCreated(List<AddUserDTO> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        val usernames = users.stream().map(AddUserDTO::getUsername).collect(toList());
+        usernames.forEach(userCache::invalidate);
+        eventPublisher.publishEvent(UserChangedEvent.created(userBatchRepo.findByUsernameIn(usernames)));
+    }
+
+    /**
+     * 按 schema.sql 的列定义校验，返回第一个不合法的字段
+     */
+    private static Optional<String> validate(AddUserDTO user) {
+        if (isBlankOrLongerThan(user.getUsername(), 50)) {
+            return Optional.of("username");
+        }
+        if (isBlankOrLongerThan(user.getMobile(), 11)) {
+            return Optional.of("mobile");
+        }
+        if (isBlankOrLongerThan(user.getName(), 50)) {
+            return Optional.of("name");
+        }
+        if (isBlankOrLongerThan(user.getEmail(), 255)) {
+            return Optional.of("email");
+        }
+        return Optional.empty();
+    }
+
+    private static boolean isBlankOrLongerThan(String value, int maxLength) {
+        return value == null || value.isBlank() || value.length() > maxLength;
+    }
+
+    private static BufferedReader reader(InputStream body) {
+        return new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+    }
+
+    private static class Progress {
+        private long total;
+        private long imported;
+        private long failed;
+        private final List<ImportResultDTO.Failure> failures = new ArrayList<>();
+
+        void fail(long line, String field, String reason) {
+            failed++;
+            if (failures.size() < MAX_REPORTED_FAILURES) {
+                failures.add(new ImportResultDTO.Failure(line, field, reason));
+            }
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.imooc.stream.service;
+
+import com.imooc.stream.domain.User;
+import com.imooc.stream.domain.UserChangedEvent;
+import com.imooc.stream.repo.UserBatchRepo;
+import com.imooc.stream.util.LongLongHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 手机号到用户 id 的进程内索引，供短信网关按来电号码反查用户。
+ * 手机号编码为 long 存放在 {@link LongLongHashMap} 中，不保存 String，也不装箱。
+ * <p>
+ * 内存（每百万用户）：正向表和 id 到手机号的反向表在负载因子 0.5 下每个条目各 32 字节，
+ * 扩容前最多 64 字节，合计 64~128MB。
+ * <p>
+ * 并发：查询持有 lock 的读锁；事件处理与重建由 updateLock 串行执行，只在修改表或替换表时短暂持有写锁，
+ * 重建期间查询继续使用旧表
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class UserMobileIndex implements SmartInitializingSingleton {
+    private static final long ABSENT = -1L;
+    private static final int MAX_DIGITS = 11;
+
+    private final UserExportService userExportService;
+    private final UserBatchRepo userBatchRepo;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock updateLock = new ReentrantLock();
+    private LongLongHashMap idsByMobile = new LongLongHashMap();
+    private LongLongHashMap mobilesById = new LongLongHashMap();
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        val start = System.nanoTime();
+        updateLock.lock();
+        try {
+            val newIdsByMobile = new LongLongHashMap();
+            val newMobilesById = new LongLongHashMap();
+            userExportService.forEachUser(user -> {
+                val key = encode(user.getMobile());
+                if (key != ABSENT && user.getId() != null) {
+                    newIdsByMobile.put(key, user.getId(), ABSENT);
+                    newMobilesById.put(user.getId(), key, ABSENT);
+                }
+            });
+            lock.writeLock().lock();
+            try {
+                idsByMobile = newIdsByMobile;
+                mobilesById = newMobilesById;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.debug("mobile index rebuilt with {} users in {} ms, table {} bytes",
+                    newIdsByMobile.size(), (System.nanoTime() - start) / 1_000_000, newIdsByMobile.tableBytes());
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        updateLock.lock();
+        try {
+            for (User user : event.getUsers()) {
+                switch (event.getType()) {
+                    case CREATED:
+                        // 该 id 已经在索引中说明之后的修改先被处理了，保留较新的手机号
+                        if (mobileOf(user.getId()) == ABSENT) {
+                            assign(user.getId(), encode(user.getMobile()));
+                        }
+                        break;
+                    case UPDATED:
+                        refresh(user.getUsername(), encode(user.getMobile()));
+                        break;
+                    case DELETED:
+                        assign(user.getId(), ABSENT);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    /**
+     * @return 手机号对应的用户 id；手机号不是 1 到 11 位数字或不存在时为空
+     */
+    public OptionalLong findIdByMobile(String mobile) {
+        val key = encode(mobile);
+        if (key == ABSENT) {
+            return OptionalLong.empty();
+        }
+        lock.readLock().lock();
+        try {
+            val id = idsByMobile.get(key, ABSENT);
+            return id == ABSENT ? OptionalLong.empty() : OptionalLong.of(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return idsByMobile.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 数字值左移 4 位，低 4 位记录位数，保留前导零："0123" 与 "123" 编码不同。
+     * 不是 1 到 {@value #MAX_DIGITS} 位数字时返回 -1，这样的手机号不进入索引
+     */
+    static long encode(String mobile) {
+        if (mobile == null || mobile.isEmpty() || mobile.length() > MAX_DIGITS) {
+            return ABSENT;
+        }
+        long value = 0;
+        for (int i = 0; i < mobile.length(); i++) {
+            val c = mobile.charAt(i);
+            if (c < '0' || c > '9') {
+                return ABSENT;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value << 4 | mobile.length();
+    }
+
+    static String decode(long key) {
+        val digits = Long.toString(key >>> 4);
+        return "0".repeat((int) (key & 0xF) - digits.length()) + digits;
+    }
+
+    /**
+     * UPDATED 事件只带用户名和新手机号。新手机号已经在索引中时什么也不做：手机号唯一，
+     * 它指向的若是原来的持有者，那个用户自己的修改事件会在移除它时改正。
+     * 否则从数据库读出该用户当前的 id 和手机号再应用；读取与应用都在 updateLock 内，
+     * 后处理的事件读到的数据不会更旧，并发修改的事件即使不按提交顺序到达，最终也是最后提交的手机号
+     */
+    private void refresh(String username, long key) {
+        if (key != ABSENT && containsMobile(key)) {
+            return;
+        }
+        for (User current : userBatchRepo.findByUsernameIn(List.of(username))) {
+            val currentKey = encode(current.getMobile());
+            val previousKey = assign(current.getId(), currentKey);
+            if (previousKey != ABSENT && previousKey != currentKey) {
+                reassign(previousKey);
+            }
+        }
+    }
+
+    /**
+     * 旧手机号移出索引后，如果已被另一个用户改用（那个用户的事件可能先到达并被跳过），改为指向该用户
+     */
+    private void reassign(long key) {
+        for (User owner : userBatchRepo.findByMobileIn(List.of(decode(key)))) {
+            assign(owner.getId(), key);
+        }
+    }
+
+    /**
+     * 把 id 的手机号改为 key，key 为 -1 表示移出索引；旧手机号只有仍指向该 id 时才删除
+     *
+     * @return 原来的手机号编码，不存在时返回 -1
+     */
+    private long assign(long id, long key) {
+        lock.writeLock().lock();
+        try {
+            val previousKey = mobilesById.get(id, ABSENT);
+            if (previousKey != ABSENT && previousKey != key && idsByMobile.get(previousKey, ABSENT) == id) {
+                idsByMobile.remove(previousKey, ABSENT);
+            }
+            if (key == ABSENT) {
+                mobilesById.remove(id, ABSENT);
+            } else {
+                idsByMobile.put(key, id, ABSENT);
+                mobilesById.put(id, key, ABSENT);
+            }
+            return previousKey;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private long mobileOf(long id) {
+        lock.readLock().lock();
+        try {
+            return mobilesById.get(id, ABSENT);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean containsMobile(long key) {
+        lock.readLock().lock();
+        try {
+            return idsByMobile.containsKey(key);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
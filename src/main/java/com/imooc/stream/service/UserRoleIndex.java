@@ -0,0 +1,95 @@
+package com.imooc.stream.service;
+
+import com.imooc.stream.domain.User;
+import com.imooc.stream.domain.UserChangedEvent;
+import com.imooc.stream.repo.UserBatchRepo;
+import com.imooc.stream.util.RoleBitmapIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 进程内的角色位图索引：启动时（Web 服务开始接收请求之前）从数据库全量加载，
+ * 之后通过 {@link UserChangedEvent} 跟随 UserResource 的写操作增量更新。
+ * 重建时在新的位图上加载，完成后整体替换，查询不会等待全表扫描
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class UserRoleIndex implements SmartInitializingSingleton {
+    private final UserExportService userExportService;
+    private final UserBatchRepo userBatchRepo;
+    /**
+     * 增量更新持有读锁，互不阻塞；重建持有写锁，期间的变更等到替换之后再应用到新位图上
+     */
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+    private volatile RoleBitmapIndex index = new RoleBitmapIndex();
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        val start = System.nanoTime();
+        rebuildLock.writeLock().lock();
+        try {
+            val newIndex = new RoleBitmapIndex();
+            val count = new AtomicLong();
+            newIndex.rebuild(() -> {
+                userExportService.forEachUser(user -> {
+                    newIndex.addUser(user.getId(), user.isEnabled(), user.getAge());
+                    count.incrementAndGet();
+                });
+                userBatchRepo.forEachUserRole(newIndex::addRole);
+            });
+            index = newIndex;
+            log.debug("role index rebuilt with {} users in {} ms", count.get(), (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        rebuildLock.readLock().lock();
+        try {
+            switch (event.getType()) {
+                case CREATED:
+                    for (User user : event.getUsers()) {
+                        index.addUser(user.getId(), user.isEnabled(), user.getAge());
+                        if (user.getRoles() != null) {
+                            user.getRoles().forEach(role -> index.addRole(user.getId(), role));
+                        }
+                    }
+                    break;
+                case DELETED:
+                    event.getUsers().forEach(user -> index.removeUser(user.getId()));
+                    break;
+                default:
+                    // UPDATED 只修改 mobile/name/email，与本索引无关
+                    break;
+            }
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    public RoaringBitmap query(Collection<String> allRoles,
+                               Collection<String> anyRoles,
+                               Collection<String> noneRoles,
+                               Boolean enabled,
+                               Integer minAge,
+                               Integer maxAge) {
+        return index.query(allRoles, anyRoles, noneRoles, enabled, minAge, maxAge);
+    }
+}
@@ -0,0 +1,166 @@
+package com.imooc.stream.service;
+
+import com.imooc.stream.domain.User;
+import com.imooc.stream.domain.UserChangedEvent;
+import com.imooc.stream.domain.dto.UserDTO;
+import com.imooc.stream.util.Pinyin;
+import com.imooc.stream.util.PrefixIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * 管理后台搜索框使用的前缀检索：用户名、姓名、姓名拼音首字母、手机号前缀以及手机号后几位。
+ * 启动时从数据库全量加载，之后跟随 {@link UserChangedEvent} 增量更新，查询不访问数据库。
+ * 每个用户在 {@link PrefixIndex} 中占 5 个条目，另有一个 UserDTO 用来直接返回结果
+ */
+@RequiredArgsConstructor
+@Service
+public class UserSearchIndex implements SmartInitializingSingleton {
+    private static final char USERNAME = 'u';
+    private static final char NAME = 'n';
+    private static final char INITIALS = 'p';
+    private static final char MOBILE = 'm';
+    /**
+     * 手机号反转后按前缀检索，即按后几位检索
+     */
+    private static final char MOBILE_SUFFIX = 'r';
+
+    private final UserExportService userExportService;
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+    private volatile PrefixIndex index = new PrefixIndex();
+    private volatile ConcurrentHashMap<String, UserDTO> users = new ConcurrentHashMap<>();
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        rebuildLock.writeLock().lock();
+        try {
+            val newIndex = new PrefixIndex();
+            val newUsers = new ConcurrentHashMap<String, UserDTO>();
+            userExportService.forEachUser(user -> {
+                val dto = toDto(user, user.isEnabled() ? UserDTO.ENABLED : UserDTO.DISABLED);
+                newUsers.put(dto.getUsername(), dto);
+                addTerms(newIndex, dto);
+            });
+            index = newIndex;
+            users = newUsers;
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        rebuildLock.readLock().lock();
+        try {
+            event.getUsers().forEach(user -> apply(event.getType(), user));
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 同一用户的并发变更在 compute 内串行执行，先删旧词条再加新词条
+     */
+    private void apply(UserChangedEvent.Type type, User user) {
+        users.compute(user.getUsername(), (username, previous) -> {
+            if (previous != null) {
+                removeTerms(index, previous);
+            }
+            switch (type) {
+                case CREATED:
+                    val created = toDto(user, user.isEnabled() ? UserDTO.ENABLED : UserDTO.DISABLED);
+                    addTerms(index, created);
+                    return created;
+                case UPDATED:
+                    if (previous == null) {
+                        return null;
+                    }
+                    val updated = toDto(user, previous.getEnabled());
+                    addTerms(index, updated);
+                    return updated;
+                default:
+                    return null;
+            }
+        });
+    }
+
+    /**
+     * 依次按用户名、姓名、拼音首字母、手机号前缀、手机号后几位匹配，前面的字段优先，去重后最多返回 limit 个
+     */
+    public List<UserDTO> search(String query, int limit) {
+        val q = query.trim().toLowerCase(Locale.ROOT);
+        val currentIndex = index;
+        val currentUsers = users;
+        val usernames = new LinkedHashSet<String>();
+        collect(usernames, currentIndex, USERNAME + q, limit);
+        collect(usernames, currentIndex, NAME + q, limit);
+        collect(usernames, currentIndex, INITIALS + q, limit);
+        if (q.chars().allMatch(Character::isDigit)) {
+            collect(usernames, currentIndex, MOBILE + q, limit);
+            collect(usernames, currentIndex, MOBILE_SUFFIX + reverse(q), limit);
+        }
+        val result = new ArrayList<UserDTO>(usernames.size());
+        for (String username : usernames) {
+            val dto = currentUsers.get(username);
+            if (dto != null) {
+                result.add(dto);
+            }
+        }
+        return result;
+    }
+
+    private static void collect(LinkedHashSet<String> usernames, PrefixIndex index, String prefix, int limit) {
+        if (usernames.size() < limit) {
+            for (String username : index.search(prefix, limit)) {
+                usernames.add(username);
+                if (usernames.size() >= limit) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private static UserDTO toDto(User user, String enabled) {
+        return new UserDTO(user.getUsername(), user.getMobile(), user.getName(), enabled);
+    }
+
+    private static void addTerms(PrefixIndex index, UserDTO user) {
+        forEachTerm(user, term -> index.add(term, user.getUsername()));
+    }
+
+    private static void removeTerms(PrefixIndex index, UserDTO user) {
+        forEachTerm(user, term -> index.remove(term, user.getUsername()));
+    }
+
+    private static void forEachTerm(UserDTO user, Consumer<String> action) {
+        action.accept(USERNAME + user.getUsername().toLowerCase(Locale.ROOT));
+        if (user.getName() != null) {
+            action.accept(NAME + user.getName().toLowerCase(Locale.ROOT));
+            action.accept(INITIALS + Pinyin.initials(user.getName()));
+        }
+        if (user.getMobile() != null) {
+            action.accept(MOBILE + user.getMobile());
+            action.accept(MOBILE_SUFFIX + reverse(user.getMobile()));
+        }
+    }
+
+    private static String reverse(String text) {
+        return new StringBuilder(text).reverse().toString();
+    }
+}
@@ -0,0 +1,84 @@
+package com.imooc.stream.service;
+
+import com.imooc.stream.domain.User;
+import com.imooc.stream.domain.UserChangedEvent;
+import com.imooc.stream.domain.dto.AgeBucketDTO;
+import com.imooc.stream.domain.dto.LiveUserStatsDTO;
+import com.imooc.stream.util.UserStatsCounter;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * 内存中的用户统计，启动时从数据库加载一次，之后跟随 {@link UserChangedEvent} 增量更新，读取从不访问数据库。
+ * 增量更新之间互不阻塞，只有整体重建时才会让它们短暂等待，保证重建期间的变更不会丢失或重复计数
+ */
+@RequiredArgsConstructor
+@Service
+public class UserStatsService implements SmartInitializingSingleton {
+    private final UserExportService userExportService;
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+    private volatile UserStatsCounter counter = new UserStatsCounter();
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        rebuildLock.writeLock().lock();
+        try {
+            val newCounter = new UserStatsCounter();
+            userExportService.forEachUser(user -> newCounter.add(user.getAge(), user.isEnabled()));
+            counter = newCounter;
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        rebuildLock.readLock().lock();
+        try {
+            switch (event.getType()) {
+                case CREATED:
+                    for (User user : event.getUsers()) {
+                        counter.add(user.getAge(), user.isEnabled());
+                    }
+                    break;
+                case DELETED:
+                    // 事件中是删除语句返回的整行，年龄与激活状态就是计入统计时的值
+                    for (User user : event.getUsers()) {
+                        counter.remove(user.getAge(), user.isEnabled());
+                    }
+                    break;
+                default:
+                    // UPDATED 只修改 mobile/name/email，不影响年龄与激活状态的统计
+                    break;
+            }
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    public LiveUserStatsDTO stats(int width) {
+        val snapshot = counter.snapshot();
+        val buckets = snapshot.buckets(width).stream()
+                .map(bucket -> new AgeBucketDTO(
+                        bucket.getBucket(),
+                        bucket.getCount(),
+                        bucket.getMin(),
+                        bucket.getMax(),
+                        (double) bucket.getSum() / bucket.getCount(),
+                        bucket.getSum()))
+                .collect(toList());
+        return new LiveUserStatsDTO(snapshot.getTotal(), snapshot.getEnabled(), snapshot.getDisabled(), buckets);
+    }
+}
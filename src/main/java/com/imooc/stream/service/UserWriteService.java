@@ -0,0 +1,99 @@
+package com.imooc.stream.service;
+
+import com.imooc.stream.domain.User;
+import com.imooc.stream.domain.UserChangedEvent;
+import com.imooc.stream.domain.dto.AddUserDTO;
+import com.imooc.stream.domain.dto.UpdateUserDTO;
+import com.imooc.stream.repo.UserBatchRepo;
+import com.imooc.stream.repo.UserCache;
+import com.imooc.stream.repo.UserRepo;
+import com.imooc.stream.util.CollationKeys;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * /api 与 /api/v2 共用的写路径：写库之后使 {@link UserCache} 失效并发布 {@link UserChangedEvent}，
+ * 控制器只负责请求与响应的转换。违反约束时抛出的 DataIntegrityViolationException 由 UserErrorAdvice 转换
+ */
+@RequiredArgsConstructor
+@Service
+public class UserWriteService {
+    private final UserRepo userRepo;
+    private final UserBatchRepo userBatchRepo;
+    private final UserCache userCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * 直接插入，由 schema.sql 中的唯一约束判断重复，并发创建同名用户时只有一个能成功
+     */
+    public User add(AddUserDTO addUserDTO) {
+        val toAdd = User.builder()
+                .username(addUserDTO.getUsername())
+                .name(addUserDTO.getName())
+                .mobile(addUserDTO.getMobile())
+                .email(addUserDTO.getEmail())
+                .build();
+        val saved = userRepo.save(toAdd);
+        userCache.invalidate(saved.getUsername());
+        eventPublisher.publishEvent(UserChangedEvent.created(saved));
+        return saved;
+    }
+
+    /**
+     * 一条 UPDATE 完成修改，不预先读取用户
+     *
+     * @return 用户不存在时返回 false
+     */
+    public boolean update(String username, UpdateUserDTO updateUserDTO) {
+        val updated = userRepo.updateByUsername(
+                username,
+                updateUserDTO.getMobile(),
+                updateUserDTO.getName(),
+                CollationKeys.SIMPLIFIED_CHINESE.sortKey(updateUserDTO.getName()),
+                updateUserDTO.getEmail()
+        );
+        if (updated == 0) {
+            return false;
+        }
+        userCache.invalidate(username);
+        eventPublisher.publishEvent(UserChangedEvent.updated(User.builder()
+                .username(username)
+                .mobile(updateUserDTO.getMobile())
+                .name(updateUserDTO.getName())
+                .email(updateUserDTO.getEmail())
+                .build()));
+        return true;
+    }
+
+    /**
+     * 一条 DELETE ... IN，调用方负责控制 usernames 的长度
+     *
+     * @return 被删除的行
+     */
+    public List<User> delete(List<String> usernames) {
+        val deleted = userBatchRepo.deleteByUsernameIn(usernames);
+        usernames.forEach(userCache::invalidate);
+        if (!deleted.isEmpty()) {
+            eventPublisher.publishEvent(UserChangedEvent.deleted(deleted));
+        }
+        return deleted;
+    }
+
+    /**
+     * 按 enabled/age 条件一条 DELETE，条件为 null 表示不限；删除了哪些用户名事先未知，整个缓存失效
+     *
+     * @return 被删除的行
+     */
+    public List<User> deleteByFilter(Boolean enabled, Integer minAge, Integer maxAge) {
+        val deleted = userBatchRepo.deleteByFilter(enabled, minAge, maxAge);
+        userCache.invalidateAll();
+        if (!deleted.isEmpty()) {
+            eventPublisher.publishEvent(UserChangedEvent.deleted(deleted));
+        }
+        return deleted;
+    }
+}
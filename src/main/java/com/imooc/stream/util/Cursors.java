@@ -0,0 +1,30 @@
+package com.imooc.stream.util;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * 把主键编码成不透明的游标字符串，客户端只能原样回传，不应解析其内容
+ */
+public final class Cursors {
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private Cursors() {
+    }
+
+    public static String encode(long id) {
+        return ENCODER.encodeToString(ByteBuffer.allocate(Long.BYTES).putLong(id).array());
+    }
+
+    /**
+     * @throws IllegalArgumentException 游标不是由 {@link #encode(long)} 生成的
+     */
+    public static long decode(String cursor) {
+        final byte[] bytes = DECODER.decode(cursor);
+        if (bytes.length != Long.BYTES) {
+            throw new IllegalArgumentException("Malformed cursor: " + cursor);
+        }
+        return ByteBuffer.wrap(bytes).getLong();
+    }
+}
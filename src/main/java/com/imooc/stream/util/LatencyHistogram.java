@@ -0,0 +1,87 @@
+package com.imooc.stream.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 一个操作的延迟分布、次数与失败次数。
+ * 记录（{@link #record(long, boolean)}）是无锁、不分配对象的，可以放在每次调用的路径上；
+ * 读取快照时才把 {@link Recorder} 中累积的区间直方图合并到总的直方图里。
+ * 精度为 2 位有效数字（误差 1%），范围 1 微秒到 1 分钟，超出范围的值按边界记录，每个实例约占 100KB
+ */
+public class LatencyHistogram {
+    private static final long LOWEST_NANOS = TimeUnit.MICROSECONDS.toNanos(1);
+    private static final long HIGHEST_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final int SIGNIFICANT_DIGITS = 2;
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    private final Recorder recorder = new Recorder(LOWEST_NANOS, HIGHEST_NANOS, SIGNIFICANT_DIGITS);
+    private final LongAdder failures = new LongAdder();
+    private final Histogram total = new Histogram(LOWEST_NANOS, HIGHEST_NANOS, SIGNIFICANT_DIGITS);
+    private Histogram interval;
+    private long startNanos = System.nanoTime();
+
+    public void record(long nanos, boolean failed) {
+        recorder.recordValue(Math.max(LOWEST_NANOS, Math.min(HIGHEST_NANOS, nanos)));
+        if (failed) {
+            failures.increment();
+        }
+    }
+
+    /**
+     * 自创建（LatencyMetrics 在第一次调用时创建）或上次 {@link #reset()} 以来的累计结果，throughput 为这段时间内的平均每秒次数
+     */
+    public synchronized Snapshot snapshot() {
+        interval = recorder.getIntervalHistogram(interval);
+        total.add(interval);
+        final long count = total.getTotalCount();
+        final long errors = failures.sum();
+        final double seconds = (System.nanoTime() - startNanos) / 1e9;
+        return new Snapshot(
+                count,
+                errors,
+                count == 0 ? 0 : (double) errors / count,
+                seconds > 0 ? count / seconds : 0,
+                millis(total.getValueAtPercentile(50)),
+                millis(total.getValueAtPercentile(90)),
+                millis(total.getValueAtPercentile(99)),
+                millis(total.getValueAtPercentile(99.9)),
+                millis(total.getMaxValue()),
+                count == 0 ? 0 : total.getMean() / NANOS_PER_MILLI
+        );
+    }
+
+    public synchronized void reset() {
+        interval = recorder.getIntervalHistogram(interval);
+        total.reset();
+        failures.reset();
+        startNanos = System.nanoTime();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / NANOS_PER_MILLI;
+    }
+
+    /**
+     * 延迟的单位都是毫秒
+     */
+    @AllArgsConstructor
+    @Getter
+    public static class Snapshot {
+        private final long count;
+        private final long errors;
+        private final double errorRate;
+        private final double throughput;
+        private final double p50;
+        private final double p90;
+        private final double p99;
+        private final double p999;
+        private final double max;
+        private final double mean;
+    }
+}
@@ -0,0 +1,237 @@
+package com.imooc.stream.util;
+
+import java.util.Arrays;
+
+/**
+ * long 到 long 的开放寻址（线性探测）散列表，键和值都以原始类型存放在两个并列数组里，
+ * 不装箱，每个条目在负载因子 0.5 下约占 32 字节（HashMap&lt;Long, Long&gt; 约 80 字节）。
+ * 非线程安全；构建完成后只读地在多个线程间共享是安全的。
+ */
+public final class LongLongHashMap {
+    private static final float LOAD_FACTOR = 0.5f;
+    private static final long EMPTY = 0L;
+
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+    /**
+     * 键为 0 时无法与空槽区分，单独存放
+     */
+    private boolean hasZeroKey;
+    private long zeroValue;
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long key, long value);
+    }
+
+    public LongLongHashMap() {
+        this(16);
+    }
+
+    public LongLongHashMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    /**
+     * @return 被替换掉的旧值，没有则返回 absent
+     */
+    public long put(long key, long value, long absent) {
+        if (key == EMPTY) {
+            final long previous = hasZeroKey ? zeroValue : absent;
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return previous;
+        }
+        int slot = slotOf(key);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                final long previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        insertAt(slot, key, value);
+        return absent;
+    }
+
+    /**
+     * 把 delta 加到键对应的值上，键不存在时视为 0
+     *
+     * @return 相加之后的值
+     */
+    public long addTo(long key, long delta) {
+        if (key == EMPTY) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            return zeroValue += delta;
+        }
+        int slot = slotOf(key);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return values[slot] += delta;
+            }
+            slot = (slot + 1) & mask;
+        }
+        insertAt(slot, key, delta);
+        return delta;
+    }
+
+    public long get(long key, long absent) {
+        if (key == EMPTY) {
+            return hasZeroKey ? zeroValue : absent;
+        }
+        int slot = slotOf(key);
+        long k;
+        while ((k = keys[slot]) != EMPTY) {
+            if (k == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return absent;
+    }
+
+    public boolean containsKey(long key) {
+        if (key == EMPTY) {
+            return hasZeroKey;
+        }
+        int slot = slotOf(key);
+        long k;
+        while ((k = keys[slot]) != EMPTY) {
+            if (k == key) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * 删除时把后续同一探测链上的元素向前移动（backward shift），不留墓碑
+     *
+     * @return 被删除的值，键不存在时返回 absent
+     */
+    public long remove(long key, long absent) {
+        if (key == EMPTY) {
+            if (!hasZeroKey) {
+                return absent;
+            }
+            hasZeroKey = false;
+            size--;
+            final long previous = zeroValue;
+            zeroValue = 0L;
+            return previous;
+        }
+        int slot = slotOf(key);
+        while (keys[slot] != key) {
+            if (keys[slot] == EMPTY) {
+                return absent;
+            }
+            slot = (slot + 1) & mask;
+        }
+        final long previous = values[slot];
+        size--;
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (keys[next] != EMPTY) {
+            final int home = slotOf(keys[next]);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = EMPTY;
+        values[gap] = 0L;
+        return previous;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void forEach(EntryConsumer action) {
+        if (hasZeroKey) {
+            action.accept(EMPTY, zeroValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                action.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(values, 0L);
+        hasZeroKey = false;
+        zeroValue = 0L;
+        size = 0;
+    }
+
+    /**
+     * 两个数组占用的字节数，不含对象头
+     */
+    public long tableBytes() {
+        return 2L * Long.BYTES * keys.length;
+    }
+
+    private void insertAt(int slot, long key, long value) {
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > (int) (keys.length * LOAD_FACTOR)) {
+            rehash(keys.length << 1);
+        }
+    }
+
+    private int slotOf(long key) {
+        return (int) (mix(key) & mask);
+    }
+
+    /**
+     * 连续的键（自增 id、号段连续的手机号）先乘以黄金分割常数再折叠高位，打散到整张表
+     */
+    private static long mix(long key) {
+        final long h = key * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+
+    private void rehash(int capacity) {
+        final long[] oldKeys = keys;
+        final long[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slotOf(oldKeys[i]);
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        final long needed = Math.max(2L, (long) Math.ceil(expectedSize / (double) LOAD_FACTOR) + 1);
+        if (needed > (1 << 30)) {
+            throw new IllegalArgumentException("Too many entries: " + expectedSize);
+        }
+        return Integer.highestOneBit((int) needed - 1) << 1;
+    }
+}
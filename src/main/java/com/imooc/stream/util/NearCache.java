@@ -0,0 +1,193 @@
+package com.imooc.stream.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.val;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+/**
+ * 进程内读穿透缓存：按 key 分段的 LRU，容量有上限，超出即淘汰最久未访问的条目。
+ * 同一个 key 的并发未命中只会触发一次加载（single-flight），
+ * 查无结果（{@link Optional#empty()}）同样会被缓存，但只保留较短的 negativeTtl。
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ */
+public class NearCache<K, V> {
+    private static final int SEGMENTS = 16;
+
+    private final Function<K, Optional<V>> loader;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final Segment<K, V>[] segments;
+    private final ConcurrentHashMap<K, CompletableFuture<Optional<V>>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    public NearCache(Function<K, Optional<V>> loader, int maximumSize, Duration ttl, Duration negativeTtl) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive");
+        }
+        this.loader = Objects.requireNonNull(loader);
+        this.ttlNanos = ttl.toNanos();
+        this.negativeTtlNanos = negativeTtl.toNanos();
+        this.segments = new Segment[SEGMENTS];
+        val capacity = Math.max(1, (maximumSize + SEGMENTS - 1) / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment<>(capacity, evictions);
+        }
+    }
+
+    /**
+     * 先查缓存，未命中或已过期时调用 loader；同一 key 同时只有一个线程在加载，其余线程等待其结果
+     */
+    public Optional<V> get(K key) {
+        val segment = segmentFor(key);
+        val cached = segment.get(key, System.nanoTime());
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        val mine = new CompletableFuture<Optional<V>>();
+        val running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            return await(running);
+        }
+        try {
+            loads.increment();
+            val loaded = Objects.requireNonNull(loader.apply(key));
+            val ttl = loaded.isPresent() ? ttlNanos : negativeTtlNanos;
+            segment.install(key, loaded, System.nanoTime() + ttl, () -> inFlight.remove(key, mine));
+            mine.complete(loaded);
+            return loaded;
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * 写操作之后调用：移除缓存条目，并让正在进行中的加载结果作废，避免旧值被写回缓存
+     */
+    public void invalidate(K key) {
+        segmentFor(key).remove(key, () -> inFlight.remove(key));
+    }
+
+    public void invalidateAll() {
+        for (Segment<K, V> segment : segments) {
+            segment.clear(inFlight::clear);
+        }
+    }
+
+    public Stats stats() {
+        long size = 0;
+        for (Segment<K, V> segment : segments) {
+            size += segment.size();
+        }
+        return new Stats(hits.sum(), misses.sum(), loads.sum(), evictions.sum(), size);
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        val h = key.hashCode();
+        return segments[(h ^ (h >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    private static <V> Optional<V> await(CompletableFuture<Optional<V>> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @AllArgsConstructor
+    private static final class Entry<V> {
+        private final Optional<V> value;
+        private final long expiresAt;
+    }
+
+    /**
+     * 一个分段就是一个 access-order 的 {@link LinkedHashMap}，所有访问都在分段锁内完成
+     */
+    private static final class Segment<K, V> {
+        private final LinkedHashMap<K, Entry<V>> entries;
+
+        Segment(int capacity, LongAdder evictions) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                    if (size() > capacity) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        synchronized Optional<V> get(K key, long now) {
+            val entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt - now <= 0) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.value;
+        }
+
+        /**
+         * 只有当本次加载仍然有效（未被 invalidate 作废）时才写入，判断与写入在同一把锁内
+         */
+        synchronized void install(K key, Optional<V> value, long expiresAt, BooleanSupplier stillValid) {
+            if (stillValid.getAsBoolean()) {
+                entries.put(key, new Entry<>(value, expiresAt));
+            }
+        }
+
+        synchronized void remove(K key, Runnable cancelLoad) {
+            entries.remove(key);
+            cancelLoad.run();
+        }
+
+        synchronized void clear(Runnable cancelLoads) {
+            entries.clear();
+            cancelLoads.run();
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+    }
+
+    @AllArgsConstructor
+    @Getter
+    public static class Stats {
+        private final long hits;
+        private final long misses;
+        private final long loads;
+        private final long evictions;
+        private final long size;
+    }
+}
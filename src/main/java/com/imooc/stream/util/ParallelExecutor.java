@@ -0,0 +1,130 @@
+package com.imooc.stream.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.val;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * 在指定名字、固定并行度的 {@link ForkJoinPool} 上运行并行流，而不是 JVM 共享的 commonPool。
+ * 在某个池中执行终端操作的并行流，其拆分出的子任务也都在这个池中执行，
+ * 因此一条重的流水线最多只能占满自己所在的池。
+ * <p>
+ * 超过期限时调用方立即得到 {@link DeadlineExceededException}；
+ * 但 ForkJoinTask 无法被中断，已经开始的子任务仍会执行完，只是结果被丢弃。
+ */
+public class ParallelExecutor implements AutoCloseable {
+    private final Map<String, ForkJoinPool> pools;
+    private final Duration defaultDeadline;
+
+    /**
+     * @param parallelismByPool 池名到并行度（工作线程数上限）
+     * @param defaultDeadline   未指定期限时使用的期限
+     */
+    public ParallelExecutor(Map<String, Integer> parallelismByPool, Duration defaultDeadline) {
+        val created = new LinkedHashMap<String, ForkJoinPool>();
+        parallelismByPool.forEach((name, parallelism) ->
+                created.put(name, new ForkJoinPool(parallelism, threadFactory(name), null, false)));
+        this.pools = Collections.unmodifiableMap(created);
+        this.defaultDeadline = defaultDeadline;
+    }
+
+    public <T> T execute(String poolName, Supplier<T> pipeline) {
+        return execute(poolName, defaultDeadline, pipeline);
+    }
+
+    /**
+     * @param pipeline 在池中调用，内部的 parallel() 流会使用该池的工作线程
+     * @throws IllegalArgumentException  池不存在
+     * @throws DeadlineExceededException 超过期限
+     */
+    public <T> T execute(String poolName, Duration deadline, Supplier<T> pipeline) {
+        val pool = pools.get(poolName);
+        if (pool == null) {
+            throw new IllegalArgumentException("unknown pool: " + poolName);
+        }
+        val task = pool.submit(pipeline::get);
+        try {
+            return task.get(deadline.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            task.cancel(true);
+            throw new DeadlineExceededException(poolName, deadline);
+        } catch (InterruptedException e) {
+            task.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for pool " + poolName, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    public Map<String, PoolStats> stats() {
+        val stats = new LinkedHashMap<String, PoolStats>();
+        pools.forEach((name, pool) -> stats.put(name, new PoolStats(
+                pool.getParallelism(),
+                pool.getPoolSize(),
+                pool.getActiveThreadCount(),
+                pool.getRunningThreadCount(),
+                pool.getQueuedTaskCount(),
+                pool.getQueuedSubmissionCount(),
+                pool.getStealCount()
+        )));
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        pools.values().forEach(ForkJoinPool::shutdownNow);
+    }
+
+    private static ForkJoinPool.ForkJoinWorkerThreadFactory threadFactory(String poolName) {
+        return pool -> {
+            val thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("parallel-" + poolName + "-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @AllArgsConstructor
+    @Getter
+    public static class PoolStats {
+        private final int parallelism;
+        private final int poolSize;
+        private final int activeThreads;
+        private final int runningThreads;
+        /**
+         * 工作线程自身队列中等待执行的子任务数
+         */
+        private final long queuedTasks;
+        /**
+         * 外部提交、尚未被工作线程取走的任务数
+         */
+        private final int queuedSubmissions;
+        private final long stealCount;
+    }
+
+    public static class DeadlineExceededException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public DeadlineExceededException(String poolName, Duration deadline) {
+            super("pool " + poolName + " did not finish within " + deadline);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.imooc.stream.util;
+
+import net.sourceforge.pinyin4j.PinyinHelper;
+import net.sourceforge.pinyin4j.format.HanyuPinyinCaseType;
+import net.sourceforge.pinyin4j.format.HanyuPinyinOutputFormat;
+import net.sourceforge.pinyin4j.format.HanyuPinyinToneType;
+import net.sourceforge.pinyin4j.format.exception.BadHanyuPinyinOutputFormatCombination;
+
+/**
+ * 汉字转拼音，多音字取第一个读音
+ */
+public final class Pinyin {
+    private static final HanyuPinyinOutputFormat FORMAT = new HanyuPinyinOutputFormat();
+
+    static {
+        FORMAT.setCaseType(HanyuPinyinCaseType.LOWERCASE);
+        FORMAT.setToneType(HanyuPinyinToneType.WITHOUT_TONE);
+    }
+
+    private Pinyin() {
+    }
+
+    /**
+     * 每个汉字取拼音首字母，其他字符原样保留（字母转小写），例如 "张三A" 得到 "zsa"
+     */
+    public static String initials(String text) {
+        final StringBuilder result = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            final String[] readings = readings(c);
+            if (readings != null && readings.length > 0 && !readings[0].isEmpty()) {
+                result.append(readings[0].charAt(0));
+            } else {
+                result.append(Character.toLowerCase(c));
+            }
+        }
+        return result.toString();
+    }
+
+    private static String[] readings(char c) {
+        try {
+            return PinyinHelper.toHanyuPinyinStringArray(c, FORMAT);
+        } catch (BadHanyuPinyinOutputFormatCombination e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.imooc.stream.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * 前缀检索索引：每个 (term, key) 存成一个 "term\0key" 字符串，放在按字典序排列的跳表里，
+ * 以 prefix 开头的条目在跳表中是连续的一段，查询只需 O(log n) 定位再顺序读取 limit 个。
+ * 线程安全，读写互不阻塞。term 中的 \0 会被去掉。
+ */
+public class PrefixIndex {
+    private static final char SEPARATOR = '\0';
+
+    private final ConcurrentSkipListSet<String> entries = new ConcurrentSkipListSet<>();
+
+    public void add(String term, String key) {
+        entries.add(entry(term, key));
+    }
+
+    public void remove(String term, String key) {
+        entries.remove(entry(term, key));
+    }
+
+    /**
+     * @return term 以 prefix 开头的 key，按 term 的字典序，去重后最多 limit 个
+     */
+    public List<String> search(String prefix, int limit) {
+        final String from = clean(prefix);
+        final LinkedHashSet<String> keys = new LinkedHashSet<>();
+        for (String entry : entries.tailSet(from)) {
+            if (!entry.startsWith(from) || keys.size() >= limit) {
+                break;
+            }
+            keys.add(entry.substring(entry.indexOf(SEPARATOR, from.length()) + 1));
+        }
+        return new ArrayList<>(keys);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static String entry(String term, String key) {
+        return clean(term) + SEPARATOR + key;
+    }
+
+    private static String clean(String term) {
+        return term.indexOf(SEPARATOR) < 0 ? term : term.replace(String.valueOf(SEPARATOR), "");
+    }
+}
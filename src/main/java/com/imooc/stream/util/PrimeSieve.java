@@ -0,0 +1,308 @@
+package com.imooc.stream.util;
+
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * [0, limit) 范围内的素数表：分段埃氏筛，只保存奇数，每个数占一个比特，
+ * 比特 i 表示 2i + 1，其中比特 0 本应表示的 1 不是素数，借来表示唯一的偶素数 2。
+ * 各段在 {@link IntStream#parallel()} 中独立筛选、互不共享 word，
+ * 在 {@link ParallelExecutor} 中调用 {@link #of(int)} 即可选择执行的线程池。
+ * 构建完成后只读，可以在多个线程间共享。
+ */
+public final class PrimeSieve {
+    /**
+     * 每段 4096 个 long（32KB），筛一段时的写入都落在 L1/L2 缓存内
+     */
+    private static final int SEGMENT_WORDS = 4096;
+    private static final int SEGMENT_BITS = SEGMENT_WORDS * Long.SIZE;
+    /**
+     * 每 8 个 word 记录一次此前的素数个数，计数时最多再数 8 个 word
+     */
+    private static final int RANK_SHIFT = 3;
+
+    private final int limit;
+    private final int bits;
+    private final long[] words;
+    private final int[] ranks;
+
+    private PrimeSieve(int limit, int bits, long[] words, int[] ranks) {
+        this.limit = limit;
+        this.bits = bits;
+        this.words = words;
+        this.ranks = ranks;
+    }
+
+    /**
+     * @param limit 上界（不含），内存约为 limit / 16 字节
+     */
+    public static PrimeSieve of(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit must not be negative: " + limit);
+        }
+        final int bits = limit >>> 1;
+        final long[] words = new long[(bits + Long.SIZE - 1) / Long.SIZE];
+        final int[] basePrimes = basePrimes((int) Math.sqrt(limit));
+        final int segments = (words.length + SEGMENT_WORDS - 1) / SEGMENT_WORDS;
+        IntStream.range(0, segments).parallel().forEach(segment -> sieveSegment(words, bits, segment, basePrimes));
+        if (limit <= 2) {
+            // 比特 0 表示 2，上界不超过 2 时不应包含它
+            clearBit(words, 0, bits);
+        }
+        return new PrimeSieve(limit, bits, words, rank(words));
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    /**
+     * O(1)：一次数组访问
+     *
+     * @throws IllegalArgumentException n 不在 [0, limit) 内
+     */
+    public boolean isPrime(int n) {
+        checkRange(n, limit - 1L);
+        if (n < 2) {
+            return false;
+        }
+        if ((n & 1) == 0) {
+            return n == 2;
+        }
+        return testBit(n >>> 1);
+    }
+
+    /**
+     * @return 不小于 n 的最小素数，不存在（在 limit 之内）时返回 -1
+     */
+    public int nextPrime(int n) {
+        checkRange(n, limit);
+        final int bit = firstSetBit(fromBit(n), bits);
+        return bit < 0 ? -1 : valueOf(bit);
+    }
+
+    public IntStream primes() {
+        return primes(0, limit);
+    }
+
+    /**
+     * [from, to) 内的全部素数，升序。流是 SIZED / SUBSIZED 的：
+     * count() 不需要遍历，并行拆分后每一段的大小也是精确的
+     */
+    public IntStream primes(int from, int to) {
+        checkRange(from, limit);
+        checkRange(to, limit);
+        if (from > to) {
+            throw new IllegalArgumentException("from > to: " + from + " > " + to);
+        }
+        return StreamSupport.intStream(new PrimeSpliterator(fromBit(from), fromBit(to)), false);
+    }
+
+    /**
+     * 小于 n 的素数个数
+     */
+    public int countBelow(int n) {
+        checkRange(n, limit);
+        return rankOf(fromBit(n));
+    }
+
+    private static void checkRange(int n, long max) {
+        if (n < 0 || n > max) {
+            throw new IllegalArgumentException(n + " is out of range [0, " + max + "]");
+        }
+    }
+
+    /**
+     * 不小于 n 的第一个候选数对应的比特：2 对应比特 0，奇数 n 对应 n / 2，偶数 n 对应 n + 1
+     */
+    private static int fromBit(int n) {
+        return n <= 2 ? 0 : n >>> 1;
+    }
+
+    private static int valueOf(int bit) {
+        return bit == 0 ? 2 : 2 * bit + 1;
+    }
+
+    /**
+     * sqrt(limit) 以内的奇素数，用最简单的埃氏筛
+     */
+    private static int[] basePrimes(int max) {
+        final boolean[] composite = new boolean[max + 1];
+        return IntStream.rangeClosed(3, max)
+                .filter(n -> (n & 1) == 1)
+                .filter(n -> {
+                    if (composite[n]) {
+                        return false;
+                    }
+                    for (long m = (long) n * n; m <= max; m += 2L * n) {
+                        composite[(int) m] = true;
+                    }
+                    return true;
+                })
+                .toArray();
+    }
+
+    private static void sieveSegment(long[] words, int bits, int segment, int[] basePrimes) {
+        final int fromWord = segment * SEGMENT_WORDS;
+        final int toWord = Math.min(words.length, fromWord + SEGMENT_WORDS);
+        for (int i = fromWord; i < toWord; i++) {
+            words[i] = -1L;
+        }
+        final long fromBit = (long) segment * SEGMENT_BITS;
+        final long toBit = Math.min(bits, fromBit + SEGMENT_BITS);
+        final long low = 2 * fromBit + 1;
+        for (int p : basePrimes) {
+            long start = Math.max((long) p * p, (low + p - 1) / p * p);
+            if ((start & 1) == 0) {
+                start += p;
+            }
+            for (long bit = start >>> 1; bit < toBit; bit += p) {
+                words[(int) (bit >>> 6)] &= ~(1L << bit);
+            }
+        }
+        if (toBit == bits && (bits & 63) != 0) {
+            words[toWord - 1] &= (1L << bits) - 1;
+        }
+    }
+
+    private static void clearBit(long[] words, int bit, int bits) {
+        if (bit < bits) {
+            words[bit >>> 6] &= ~(1L << bit);
+        }
+    }
+
+    private static int[] rank(long[] words) {
+        final int[] ranks = new int[((words.length + (1 << RANK_SHIFT) - 1) >>> RANK_SHIFT) + 1];
+        int count = 0;
+        for (int i = 0; i < words.length; i++) {
+            if ((i & ((1 << RANK_SHIFT) - 1)) == 0) {
+                ranks[i >>> RANK_SHIFT] = count;
+            }
+            count += Long.bitCount(words[i]);
+        }
+        ranks[ranks.length - 1] = count;
+        return ranks;
+    }
+
+    private boolean testBit(int bit) {
+        return (words[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    /**
+     * 比特 [0, bit) 中置位的个数
+     */
+    private int rankOf(int bit) {
+        final int word = bit >>> 6;
+        final int block = word >>> RANK_SHIFT;
+        int count = ranks[block];
+        for (int i = block << RANK_SHIFT; i < word; i++) {
+            count += Long.bitCount(words[i]);
+        }
+        if ((bit & 63) != 0) {
+            count += Long.bitCount(words[word] & ((1L << bit) - 1));
+        }
+        return count;
+    }
+
+    /**
+     * [from, to) 中第一个置位的比特，没有则返回 -1
+     */
+    private int firstSetBit(int from, int to) {
+        if (from >= to) {
+            return -1;
+        }
+        int word = from >>> 6;
+        long w = words[word] & (-1L << from);
+        while (w == 0) {
+            if (++word >= words.length) {
+                return -1;
+            }
+            w = words[word];
+        }
+        final int bit = (word << 6) + Long.numberOfTrailingZeros(w);
+        return bit < to ? bit : -1;
+    }
+
+    /**
+     * 遍历比特区间 [from, to) 中置位的比特，按位置拆分，大小由 rank 精确得出
+     */
+    private final class PrimeSpliterator implements Spliterator.OfInt {
+        private static final int MIN_SPLIT_BITS = 1 << 12;
+
+        private int from;
+        private final int to;
+
+        PrimeSpliterator(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            final int bit = firstSetBit(from, to);
+            if (bit < 0) {
+                from = to;
+                return false;
+            }
+            from = bit + 1;
+            action.accept(valueOf(bit));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            final int end = to;
+            int bit = from;
+            from = end;
+            if (bit >= end) {
+                return;
+            }
+            final int lastWord = (end - 1) >>> 6;
+            for (int word = bit >>> 6; word <= lastWord; word++) {
+                long w = words[word];
+                if (word == bit >>> 6) {
+                    w &= -1L << bit;
+                }
+                if (word == lastWord && (end & 63) != 0) {
+                    w &= (1L << end) - 1;
+                }
+                while (w != 0) {
+                    action.accept(valueOf((word << 6) + Long.numberOfTrailingZeros(w)));
+                    w &= w - 1;
+                }
+            }
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit() {
+            if (to - from < MIN_SPLIT_BITS) {
+                return null;
+            }
+            final int mid = (from + ((to - from) >>> 1)) & ~63;
+            if (mid <= from) {
+                return null;
+            }
+            final PrimeSpliterator prefix = new PrimeSpliterator(from, mid);
+            from = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return rankOf(to) - rankOf(from);
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SORTED | DISTINCT | NONNULL | IMMUTABLE | SIZED | SUBSIZED;
+        }
+
+        @Override
+        public Comparator<? super Integer> getComparator() {
+            return null;
+        }
+    }
+}
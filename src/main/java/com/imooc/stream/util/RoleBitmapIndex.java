@@ -0,0 +1,145 @@
+package com.imooc.stream.util;
+
+import lombok.val;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 角色、激活状态、年龄到用户 id 的压缩位图（Roaring Bitmap）索引，
+ * 集合运算（AND / OR / ANDNOT）直接在位图上完成，不需要扫描用户。
+ * 读多写少，用读写锁保护；所有写操作都是幂等的，重复应用同一个变更不会出错。
+ * 用户 id 必须能放进 int。
+ */
+public class RoleBitmapIndex {
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RoaringBitmap all = new RoaringBitmap();
+    private final RoaringBitmap enabled = new RoaringBitmap();
+    private final Map<String, RoaringBitmap> byRole = new HashMap<>();
+    private final NavigableMap<Integer, RoaringBitmap> byAge = new TreeMap<>();
+
+    /**
+     * 年龄或激活状态变化时需要先 {@link #removeUser(long)} 再重新添加
+     */
+    public void addUser(long userId, boolean isEnabled, int age) {
+        val id = Math.toIntExact(userId);
+        lock.writeLock().lock();
+        try {
+            all.add(id);
+            if (isEnabled) {
+                enabled.add(id);
+            }
+            byAge.computeIfAbsent(age, key -> new RoaringBitmap()).add(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void addRole(long userId, String role) {
+        val id = Math.toIntExact(userId);
+        lock.writeLock().lock();
+        try {
+            byRole.computeIfAbsent(role, key -> new RoaringBitmap()).add(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeUser(long userId) {
+        val id = Math.toIntExact(userId);
+        lock.writeLock().lock();
+        try {
+            all.remove(id);
+            enabled.remove(id);
+            byRole.values().forEach(bitmap -> bitmap.remove(id));
+            byAge.values().forEach(bitmap -> bitmap.remove(id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            all.clear();
+            enabled.clear();
+            byRole.clear();
+            byAge.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 在写锁内执行一组修改，期间查询会等待，用于整体重建
+     */
+    public void rebuild(Runnable loader) {
+        lock.writeLock().lock();
+        try {
+            clear();
+            loader.run();
+            all.runOptimize();
+            enabled.runOptimize();
+            byRole.values().forEach(RoaringBitmap::runOptimize);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param allRoles  必须同时拥有的角色
+     * @param anyRoles  至少拥有其中一个的角色，为空表示不限
+     * @param noneRoles 不能拥有的角色
+     * @param isEnabled 为 null 表示不限
+     * @param minAge    包含，为 null 表示不限
+     * @param maxAge    包含，为 null 表示不限
+     * @return 满足所有条件的用户 id，是一个新的位图，调用方可以随意修改
+     */
+    public RoaringBitmap query(Collection<String> allRoles,
+                               Collection<String> anyRoles,
+                               Collection<String> noneRoles,
+                               Boolean isEnabled,
+                               Integer minAge,
+                               Integer maxAge) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap result = anyRoles.isEmpty() ? all.clone() : union(anyRoles);
+            for (String role : allRoles) {
+                result.and(byRole.getOrDefault(role, new RoaringBitmap()));
+            }
+            if (!noneRoles.isEmpty()) {
+                result.andNot(union(noneRoles));
+            }
+            if (isEnabled != null) {
+                if (isEnabled) {
+                    result.and(enabled);
+                } else {
+                    result.andNot(enabled);
+                }
+            }
+            if (minAge != null || maxAge != null) {
+                val ages = byAge.subMap(
+                        minAge == null ? Integer.MIN_VALUE : minAge, true,
+                        maxAge == null ? Integer.MAX_VALUE : maxAge, true
+                );
+                result.and(FastAggregation.or(ages.values().iterator()));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private RoaringBitmap union(Collection<String> roles) {
+        return FastAggregation.or(roles.stream()
+                .map(role -> byRole.getOrDefault(role, new RoaringBitmap()))
+                .iterator());
+    }
+}
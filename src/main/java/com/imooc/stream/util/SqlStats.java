@@ -0,0 +1,112 @@
+package com.imooc.stream.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 当前线程上一段工作（一般是一次请求）执行的 JDBC 语句数、读取的行数和在数据库中花费的时间，
+ * 由 {@link CountingDataSource} 在执行语句、读取结果集时累加。
+ * 只统计 {@link #begin(int, boolean)} 与 {@link #end()} 之间在同一线程上执行的语句，
+ * 切换到其他线程（例如 /api/v2 的 jdbcScheduler）执行的语句不计入。
+ */
+public final class SqlStats {
+    private static final ThreadLocal<SqlStats> CURRENT = new ThreadLocal<>();
+
+    private final int budget;
+    private final boolean failOverBudget;
+    private int statements;
+    private long rows;
+    private long nanos;
+    /**
+     * SQL 文本到执行次数，同一条 SQL 执行多次往往意味着 N+1
+     */
+    private final Map<String, Integer> executions = new HashMap<>();
+
+    private SqlStats(int budget, boolean failOverBudget) {
+        this.budget = budget;
+        this.failOverBudget = failOverBudget;
+    }
+
+    /**
+     * 开始统计当前线程
+     *
+     * @param budget         语句数上限，0 表示不限
+     * @param failOverBudget 超出上限时是否在执行第 budget + 1 条语句之前抛出 {@link BudgetExceededException}
+     */
+    public static SqlStats begin(int budget, boolean failOverBudget) {
+        final SqlStats stats = new SqlStats(budget, failOverBudget);
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /**
+     * @return 当前线程未在统计时返回 null
+     */
+    public static SqlStats current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 结束统计当前线程，返回累计的结果
+     */
+    public static SqlStats end() {
+        final SqlStats stats = CURRENT.get();
+        CURRENT.remove();
+        return stats;
+    }
+
+    void beforeStatement(String sql) {
+        if (failOverBudget && budget > 0 && statements >= budget) {
+            throw new BudgetExceededException("SQL statement budget " + budget + " exceeded, next statement: " + sql);
+        }
+        statements++;
+        executions.merge(sql, 1, Integer::sum);
+    }
+
+    void addNanos(long elapsed) {
+        nanos += elapsed;
+    }
+
+    void addRow() {
+        rows++;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    public boolean isOverBudget() {
+        return budget > 0 && statements > budget;
+    }
+
+    /**
+     * @return 执行次数最多的 SQL 及其次数，没有执行过语句时返回 null
+     */
+    public Map.Entry<String, Integer> mostRepeated() {
+        return executions.entrySet().stream().max(Map.Entry.comparingByValue()).orElse(null);
+    }
+
+    @Override
+    public String toString() {
+        return "statements=" + statements + ", rows=" + rows + ", time=" + nanos / 1_000_000 + "ms";
+    }
+
+    /**
+     * 直接继承 RuntimeException，不会被按 IllegalStateException / IllegalArgumentException 处理参数错误的代码当作 400
+     */
+    public static class BudgetExceededException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public BudgetExceededException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.imooc.stream.util;
+
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 能被并行流均匀拆分的数据源。
+ * <p>
+ * {@code Stream.iterate(seed, f).limit(n)} 的大小未知，只能逐个元素地从头取；
+ * {@link Spliterators#spliteratorUnknownSize(Iterator, int)} 每次拆分至少要取 1024 个元素，
+ * 元素少而每个元素代价高时根本不会拆分。两者在并行时都基本只有一个线程在干活。
+ */
+public final class Streams {
+    public static final int DEFAULT_INITIAL_BATCH = 16;
+    public static final int DEFAULT_MAX_BATCH = 1 << 14;
+
+    private Streams() {
+    }
+
+    /**
+     * 等差数列 start, start + step, ... 共 count 项，等价于
+     * {@code IntStream.iterate(start, n -> n + step).limit(count)}，但由下标直接算出每一项，
+     * 是 SIZED / SUBSIZED 的，可以在任意位置对半拆分
+     */
+    public static IntStream arithmetic(int start, int step, int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count must not be negative: " + count);
+        }
+        return IntStream.range(0, count).map(i -> start + i * step);
+    }
+
+    public static LongStream arithmetic(long start, long step, long count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count must not be negative: " + count);
+        }
+        return LongStream.range(0, count).map(i -> start + i * step);
+    }
+
+    public static <T> Stream<T> fromIterator(Iterator<? extends T> iterator) {
+        return fromIterator(iterator, DEFAULT_INITIAL_BATCH, DEFAULT_MAX_BATCH);
+    }
+
+    /**
+     * 把迭代器（或任何只能顺序读取的游标）包装成流。拆分时从迭代器取出一批元素交给其他线程，
+     * 第一批 initialBatch 个，之后每次翻倍直到 maxBatch：
+     * 元素代价高时用较小的 initialBatch，可以尽早把工作分出去；元素很廉价时用较大的值减少拆分次数。
+     * 迭代器只会被一个线程访问，不需要是线程安全的
+     */
+    public static <T> Stream<T> fromIterator(Iterator<? extends T> iterator, int initialBatch, int maxBatch) {
+        if (initialBatch < 1 || maxBatch < initialBatch) {
+            throw new IllegalArgumentException("require 1 <= initialBatch <= maxBatch");
+        }
+        return StreamSupport.stream(new BatchingSpliterator<>(iterator, initialBatch, maxBatch), false);
+    }
+
+    private static final class BatchingSpliterator<T> implements Spliterator<T> {
+        private final Iterator<? extends T> iterator;
+        private final int maxBatch;
+        private int batch;
+
+        BatchingSpliterator(Iterator<? extends T> iterator, int initialBatch, int maxBatch) {
+            this.iterator = Objects.requireNonNull(iterator);
+            this.batch = initialBatch;
+            this.maxBatch = maxBatch;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (!iterator.hasNext()) {
+                return false;
+            }
+            action.accept(iterator.next());
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            iterator.forEachRemaining(action);
+        }
+
+        /**
+         * 取出的一批元素放进数组，返回的数组 spliterator 是 SIZED / SUBSIZED 的，可以继续对半拆分
+         */
+        @Override
+        public Spliterator<T> trySplit() {
+            if (!iterator.hasNext()) {
+                return null;
+            }
+            final Object[] elements = new Object[batch];
+            int n = 0;
+            while (n < elements.length && iterator.hasNext()) {
+                elements[n++] = iterator.next();
+            }
+            batch = (int) Math.min(maxBatch, 2L * batch);
+            return Spliterators.spliterator(elements, 0, n, Spliterator.ORDERED);
+        }
+
+        @Override
+        public long estimateSize() {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED;
+        }
+    }
+}
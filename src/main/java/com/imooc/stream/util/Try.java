@@ -1,11 +1,378 @@
 package com.imooc.stream.util;
 
+import com.pivovarit.function.ThrowingFunction;
+import com.pivovarit.function.ThrowingSupplier;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 
-@AllArgsConstructor
-@Getter
-public class Try<Exception, R> {
-    private final Exception failure;
-    private final R success;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+/**
+ * 一次可能失败的计算的结果：要么是成功的值，要么是失败的原因（{@link Exception}，不捕获 {@link Error}）。
+ * <p>
+ * 失败时 map / flatMap 直接返回自身，不分配新对象，也不调用传入的函数；
+ * 预期内的失败（例如校验不通过）请用 {@link #expected(String)}，它的异常不收集栈，构造代价与普通对象相当。
+ *
+ * @param <T> 成功值的类型
+ */
+public abstract class Try<T> {
+
+    private Try() {
+    }
+
+    public static <T> Try<T> success(T value) {
+        return new Success<>(value);
+    }
+
+    public static <T> Try<T> failure(Exception cause) {
+        return new Failure<>(Objects.requireNonNull(cause));
+    }
+
+    /**
+     * 预期内的失败，异常为不带栈信息的 {@link ExpectedFailure}
+     */
+    public static <T> Try<T> expected(String message) {
+        return new Failure<>(new ExpectedFailure(message));
+    }
+
+    /**
+     * 立即调用 supplier，并把抛出的异常收集为失败
+     */
+    public static <T> Try<T> attempt(ThrowingSupplier<? extends T, ? extends Exception> supplier) {
+        try {
+            return new Success<>(supplier.get());
+        } catch (Exception e) {
+            return new Failure<>(e);
+        }
+    }
+
+    /**
+     * 延迟计算：supplier 在第一次访问结果（isSuccess / get / fold 等）时才被调用，且只调用一次，
+     * 之后的访问共享同一个结果；对其 map / flatMap 得到的仍是延迟的 Try。可以在线程间共享
+     */
+    public static <T> Try<T> of(ThrowingSupplier<? extends T, ? extends Exception> supplier) {
+        Objects.requireNonNull(supplier);
+        return new Lazy<>(() -> attempt(supplier));
+    }
+
+    public abstract boolean isSuccess();
+
+    public final boolean isFailure() {
+        return !isSuccess();
+    }
+
+    /**
+     * @throws NoSuchElementException 失败时，原因作为 cause
+     */
+    public abstract T get();
+
+    /**
+     * @throws NoSuchElementException 成功时
+     */
+    public abstract Exception getCause();
+
+    public abstract T getOrElse(T other);
+
+    public abstract <U> Try<U> map(ThrowingFunction<? super T, ? extends U, ? extends Exception> mapper);
+
+    public abstract <U> Try<U> flatMap(Function<? super T, Try<U>> mapper);
+
+    /**
+     * 失败时用 recovery 由失败原因算出一个成功值，成功时返回自身
+     */
+    public abstract Try<T> recover(Function<? super Exception, ? extends T> recovery);
+
+    public abstract <U> U fold(Function<? super Exception, ? extends U> onFailure, Function<? super T, ? extends U> onSuccess);
+
+    public final Try<T> onSuccess(Consumer<? super T> action) {
+        if (isSuccess()) {
+            action.accept(get());
+        }
+        return this;
+    }
+
+    public final Try<T> onFailure(Consumer<? super Exception> action) {
+        if (isFailure()) {
+            action.accept(getCause());
+        }
+        return this;
+    }
+
+    /**
+     * 把 Try 流按成功与失败分开，各自保持原有顺序；并行流中各线程先收集到自己的容器再合并
+     */
+    public static <T> Collector<Try<T>, ?, Partition<T>> partitioning() {
+        return Collector.of(
+                () -> new Partition<T>(new ArrayList<>(), new ArrayList<>()),
+                Partition::add,
+                (left, right) -> {
+                    left.successes.addAll(right.successes);
+                    left.failures.addAll(right.failures);
+                    return left;
+                },
+                Partition::unmodifiable
+        );
+    }
+
+    /**
+     * 与 {@link #partitioning()} 分出的元素相同，但结果不保证顺序（UNORDERED）：并行流中所有线程直接写入
+     * 同一对 {@link ConcurrentLinkedQueue}（CONCURRENT），不再为每个分片各建一个容器并逐级合并，
+     * 只在最后复制一次到不可变列表。成功值不能为 null
+     */
+    public static <T> Collector<Try<T>, ?, Partition<T>> partitioningConcurrent() {
+        return Collector.<Try<T>, ConcurrentPartition<T>, Partition<T>>of(
+                ConcurrentPartition::new,
+                ConcurrentPartition::add,
+                (left, right) -> {
+                    left.successes.addAll(right.successes);
+                    left.failures.addAll(right.failures);
+                    return left;
+                },
+                partition -> new Partition<>(
+                        Collections.unmodifiableList(new ArrayList<>(partition.successes)),
+                        Collections.unmodifiableList(new ArrayList<>(partition.failures))),
+                Collector.Characteristics.CONCURRENT,
+                Collector.Characteristics.UNORDERED
+        );
+    }
+
+    private static final class Success<T> extends Try<T> {
+        private final T value;
+
+        Success(T value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean isSuccess() {
+            return true;
+        }
+
+        @Override
+        public T get() {
+            return value;
+        }
+
+        @Override
+        public Exception getCause() {
+            throw new NoSuchElementException("success has no cause");
+        }
+
+        @Override
+        public T getOrElse(T other) {
+            return value;
+        }
+
+        @Override
+        public <U> Try<U> map(ThrowingFunction<? super T, ? extends U, ? extends Exception> mapper) {
+            try {
+                return new Success<>(mapper.apply(value));
+            } catch (Exception e) {
+                return new Failure<>(e);
+            }
+        }
+
+        @Override
+        public <U> Try<U> flatMap(Function<? super T, Try<U>> mapper) {
+            return Objects.requireNonNull(mapper.apply(value));
+        }
+
+        @Override
+        public Try<T> recover(Function<? super Exception, ? extends T> recovery) {
+            return this;
+        }
+
+        @Override
+        public <U> U fold(Function<? super Exception, ? extends U> onFailure, Function<? super T, ? extends U> onSuccess) {
+            return onSuccess.apply(value);
+        }
+
+        @Override
+        public String toString() {
+            return "Success(" + value + ")";
+        }
+    }
+
+    private static final class Failure<T> extends Try<T> {
+        private final Exception cause;
+
+        Failure(Exception cause) {
+            this.cause = cause;
+        }
+
+        @Override
+        public boolean isSuccess() {
+            return false;
+        }
+
+        @Override
+        public T get() {
+            throw (NoSuchElementException) new NoSuchElementException(cause.getMessage()).initCause(cause);
+        }
+
+        @Override
+        public Exception getCause() {
+            return cause;
+        }
+
+        @Override
+        public T getOrElse(T other) {
+            return other;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <U> Try<U> map(ThrowingFunction<? super T, ? extends U, ? extends Exception> mapper) {
+            return (Try<U>) this;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <U> Try<U> flatMap(Function<? super T, Try<U>> mapper) {
+            return (Try<U>) this;
+        }
+
+        @Override
+        public Try<T> recover(Function<? super Exception, ? extends T> recovery) {
+            return new Success<>(recovery.apply(cause));
+        }
+
+        @Override
+        public <U> U fold(Function<? super Exception, ? extends U> onFailure, Function<? super T, ? extends U> onSuccess) {
+            return onFailure.apply(cause);
+        }
+
+        @Override
+        public String toString() {
+            return "Failure(" + cause + ")";
+        }
+    }
+
+    private static final class Lazy<T> extends Try<T> {
+        private Supplier<Try<T>> computation;
+        private volatile Try<T> result;
+
+        Lazy(Supplier<Try<T>> computation) {
+            this.computation = computation;
+        }
+
+        private Try<T> resolve() {
+            Try<T> resolved = result;
+            if (resolved == null) {
+                synchronized (this) {
+                    resolved = result;
+                    if (resolved == null) {
+                        resolved = computation.get();
+                        result = resolved;
+                        computation = null;
+                    }
+                }
+            }
+            return resolved;
+        }
+
+        @Override
+        public boolean isSuccess() {
+            return resolve().isSuccess();
+        }
+
+        @Override
+        public T get() {
+            return resolve().get();
+        }
+
+        @Override
+        public Exception getCause() {
+            return resolve().getCause();
+        }
+
+        @Override
+        public T getOrElse(T other) {
+            return resolve().getOrElse(other);
+        }
+
+        @Override
+        public <U> Try<U> map(ThrowingFunction<? super T, ? extends U, ? extends Exception> mapper) {
+            return new Lazy<>(() -> resolve().map(mapper));
+        }
+
+        @Override
+        public <U> Try<U> flatMap(Function<? super T, Try<U>> mapper) {
+            return new Lazy<>(() -> resolve().flatMap(mapper));
+        }
+
+        @Override
+        public Try<T> recover(Function<? super Exception, ? extends T> recovery) {
+            return new Lazy<>(() -> resolve().recover(recovery));
+        }
+
+        @Override
+        public <U> U fold(Function<? super Exception, ? extends U> onFailure, Function<? super T, ? extends U> onSuccess) {
+            return resolve().fold(onFailure, onSuccess);
+        }
+
+        @Override
+        public String toString() {
+            final Try<T> resolved = result;
+            return resolved == null ? "Lazy(?)" : resolved.toString();
+        }
+    }
+
+    /**
+     * 预期内的失败：不收集栈信息，只有 message 有意义
+     */
+    public static class ExpectedFailure extends IllegalArgumentException {
+        private static final long serialVersionUID = 1L;
+
+        public ExpectedFailure(String message) {
+            super(message);
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+
+    @AllArgsConstructor
+    @Getter
+    public static class Partition<T> {
+        private final List<T> successes;
+        private final List<Exception> failures;
+
+        private void add(Try<T> attempt) {
+            if (attempt.isSuccess()) {
+                successes.add(attempt.get());
+            } else {
+                failures.add(attempt.getCause());
+            }
+        }
+
+        private Partition<T> unmodifiable() {
+            return new Partition<>(Collections.unmodifiableList(successes), Collections.unmodifiableList(failures));
+        }
+    }
+
+    private static final class ConcurrentPartition<T> {
+        private final Queue<T> successes = new ConcurrentLinkedQueue<>();
+        private final Queue<Exception> failures = new ConcurrentLinkedQueue<>();
+
+        void add(Try<T> attempt) {
+            if (attempt.isSuccess()) {
+                successes.add(attempt.get());
+            } else {
+                failures.add(attempt.getCause());
+            }
+        }
+    }
 }
@@ -0,0 +1,104 @@
+package com.imooc.stream.util;
+
+import com.imooc.stream.domain.User;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.stream.Collector;
+
+/**
+ * 以 {@link User#getId()} 为键的散列索引，适合在内存中按 id 做关联（join）。
+ * 散列部分复用 {@link LongLongHashMap}：id 映射到用户在一个紧凑数组中的下标，
+ * 查找时既不装箱也不调用 equals/hashCode；删除时把最后一个用户移到空出的位置，数组始终没有空洞。
+ * 非线程安全；构建完成后只读地在多个线程间共享是安全的。
+ */
+public final class UserIdIndex {
+    private static final long ABSENT = -1L;
+
+    private final LongLongHashMap positionsById;
+    private User[] users;
+    private int size;
+
+    public UserIdIndex() {
+        this(16);
+    }
+
+    public UserIdIndex(int expectedSize) {
+        positionsById = new LongLongHashMap(expectedSize);
+        users = new User[Math.max(1, expectedSize)];
+    }
+
+    public static Collector<User, ?, UserIdIndex> toUserIdIndex() {
+        return Collector.of(
+                UserIdIndex::new,
+                UserIdIndex::put,
+                (left, right) -> {
+                    right.forEach(left::put);
+                    return left;
+                }
+        );
+    }
+
+    /**
+     * @return 被替换掉的旧值，没有则返回 null
+     * @throws IllegalArgumentException 用户尚未持久化（id 为 null）
+     */
+    public User put(User user) {
+        if (user.getId() == null) {
+            throw new IllegalArgumentException("Transient user has no id: " + user);
+        }
+        final long position = positionsById.get(user.getId(), ABSENT);
+        if (position != ABSENT) {
+            final User previous = users[(int) position];
+            users[(int) position] = user;
+            return previous;
+        }
+        if (size == users.length) {
+            users = Arrays.copyOf(users, size << 1);
+        }
+        users[size] = user;
+        positionsById.put(user.getId(), size, ABSENT);
+        size++;
+        return null;
+    }
+
+    public User get(long id) {
+        final long position = positionsById.get(id, ABSENT);
+        return position == ABSENT ? null : users[(int) position];
+    }
+
+    public boolean containsId(long id) {
+        return positionsById.containsKey(id);
+    }
+
+    public User remove(long id) {
+        final long position = positionsById.remove(id, ABSENT);
+        if (position == ABSENT) {
+            return null;
+        }
+        final User previous = users[(int) position];
+        final int last = --size;
+        if (position != last) {
+            users[(int) position] = users[last];
+            positionsById.put(users[last].getId(), position, ABSENT);
+        }
+        users[last] = null;
+        return previous;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void forEach(Consumer<User> action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(users[i]);
+        }
+    }
+
+    public void clear() {
+        positionsById.clear();
+        Arrays.fill(users, 0, size, null);
+        size = 0;
+    }
+}
@@ -0,0 +1,109 @@
+package com.imooc.stream.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.val;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 可增量维护的用户统计：每个年龄一个计数器，相当于一个年龄的多重集合，
+ * 删除时只需对应计数减一，最小/最大年龄仍然可以从非零计数中得到。
+ * 写操作都是无锁的原子加减；读取时扫描固定 {@value #MAX_AGE} + 1 个计数器，与用户数无关。
+ * 年龄必须在 [0, {@value #MAX_AGE}] 之内，与 schema.sql 中的 ck_mooc_users_age 约束一致，超出时抛出异常而不是并入边界值。
+ */
+public class UserStatsCounter {
+    public static final int MAX_AGE = 150;
+
+    private final AtomicLongArray countsByAge = new AtomicLongArray(MAX_AGE + 1);
+    private final LongAdder enabled = new LongAdder();
+    private final LongAdder disabled = new LongAdder();
+
+    /**
+     * @throws IllegalArgumentException 年龄不在 [0, {@value #MAX_AGE}] 之内
+     */
+    public void add(int age, boolean isEnabled) {
+        countsByAge.incrementAndGet(checkAge(age));
+        (isEnabled ? enabled : disabled).increment();
+    }
+
+    /**
+     * 调用方需保证移除的 (age, isEnabled) 之前确实被 {@link #add(int, boolean)} 过
+     *
+     * @throws IllegalArgumentException 年龄不在 [0, {@value #MAX_AGE}] 之内
+     */
+    public void remove(int age, boolean isEnabled) {
+        countsByAge.decrementAndGet(checkAge(age));
+        (isEnabled ? enabled : disabled).decrement();
+    }
+
+    /**
+     * 各计数器分别读取，并发写入时快照不是严格的同一时刻，但每个计数本身都是准确的
+     */
+    public Snapshot snapshot() {
+        val counts = new long[MAX_AGE + 1];
+        for (int age = 0; age <= MAX_AGE; age++) {
+            counts[age] = countsByAge.get(age);
+        }
+        return new Snapshot(counts, enabled.sum(), disabled.sum());
+    }
+
+    private static int checkAge(int age) {
+        if (age < 0 || age > MAX_AGE) {
+            throw new IllegalArgumentException("age out of range [0, " + MAX_AGE + "]: " + age);
+        }
+        return age;
+    }
+
+    @AllArgsConstructor
+    public static class Snapshot {
+        private final long[] countsByAge;
+        @Getter
+        private final long enabled;
+        @Getter
+        private final long disabled;
+
+        public long getTotal() {
+            return enabled + disabled;
+        }
+
+        /**
+         * 按 width 划分年龄段，只返回有用户的段，按下界升序
+         */
+        public List<Bucket> buckets(int width) {
+            val buckets = new ArrayList<Bucket>();
+            for (int from = 0; from <= MAX_AGE; from += width) {
+                long count = 0;
+                long sum = 0;
+                int min = -1;
+                int max = -1;
+                for (int age = from; age < Math.min(from + width, MAX_AGE + 1); age++) {
+                    val n = countsByAge[age];
+                    if (n > 0) {
+                        count += n;
+                        sum += n * age;
+                        min = min < 0 ? age : min;
+                        max = age;
+                    }
+                }
+                if (count > 0) {
+                    buckets.add(new Bucket(from, count, min, max, sum));
+                }
+            }
+            return buckets;
+        }
+    }
+
+    @AllArgsConstructor
+    @Getter
+    public static class Bucket {
+        private final int bucket;
+        private final long count;
+        private final int min;
+        private final int max;
+        private final long sum;
+    }
+}
@@ -0,0 +1,184 @@
+package com.imooc.stream.util.collectors;
+
+import com.imooc.stream.util.LongLongHashMap;
+
+import java.util.Comparator;
+import java.util.LongSummaryStatistics;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+
+import static java.util.stream.Collector.Characteristics.CONCURRENT;
+import static java.util.stream.Collector.Characteristics.IDENTITY_FINISH;
+import static java.util.stream.Collector.Characteristics.UNORDERED;
+
+/**
+ * CONCURRENT / UNORDERED 的收集器：并行流中所有线程直接写入同一个线程安全的容器，
+ * 不再为每个子任务各建一个容器、最后用 putAll / addAll 两两合并。
+ * 这些收集器不保证元素的相遇顺序，需要顺序时请使用 {@link java.util.stream.Collectors} 中的对应版本。
+ */
+public final class ConcurrentCollectors {
+    private static final int COUNTING_STRIPES = 64;
+
+    private ConcurrentCollectors() {
+    }
+
+    /**
+     * 收集为按键排序的 {@link ConcurrentSkipListMap}，键重复时用 merge 合并值
+     */
+    public static <T, K extends Comparable<? super K>, V> Collector<T, ?, ConcurrentSkipListMap<K, V>> toConcurrentSortedMap(
+            Function<? super T, ? extends K> keyMapper,
+            Function<? super T, ? extends V> valueMapper,
+            BinaryOperator<V> merge) {
+        return toConcurrentSortedMap(keyMapper, valueMapper, merge, Comparator.naturalOrder());
+    }
+
+    public static <T, K, V> Collector<T, ?, ConcurrentSkipListMap<K, V>> toConcurrentSortedMap(
+            Function<? super T, ? extends K> keyMapper,
+            Function<? super T, ? extends V> valueMapper,
+            BinaryOperator<V> merge,
+            Comparator<? super K> comparator) {
+        return Collector.of(
+                () -> new ConcurrentSkipListMap<K, V>(comparator),
+                (map, element) -> map.merge(keyMapper.apply(element), valueMapper.apply(element), merge),
+                (left, right) -> {
+                    right.forEach((key, value) -> left.merge(key, value, merge));
+                    return left;
+                },
+                CONCURRENT, UNORDERED, IDENTITY_FINISH
+        );
+    }
+
+    /**
+     * 按 classifier 分组，每组是一个无锁的 {@link ConcurrentLinkedQueue}；
+     * 组内元素的顺序是各线程实际写入的顺序
+     */
+    public static <T, K> Collector<T, ?, ConcurrentMap<K, Queue<T>>> groupingByConcurrentQueue(
+            Function<? super T, ? extends K> classifier) {
+        return Collector.of(
+                ConcurrentHashMap::new,
+                (map, element) -> map.computeIfAbsent(classifier.apply(element), key -> new ConcurrentLinkedQueue<>()).add(element),
+                (left, right) -> {
+                    right.forEach((key, elements) -> left.computeIfAbsent(key, k -> new ConcurrentLinkedQueue<>()).addAll(elements));
+                    return left;
+                },
+                CONCURRENT, UNORDERED, IDENTITY_FINISH
+        );
+    }
+
+    /**
+     * 与 {@link java.util.stream.Collectors#summarizingLong(ToLongFunction)} 相同的结果，
+     * 计数与求和用分段的 {@link LongAdder}，最小/最大值用 {@link LongAccumulator}，线程之间几乎没有 CAS 竞争
+     */
+    public static <T> Collector<T, ?, LongSummaryStatistics> summarizingLong(ToLongFunction<? super T> mapper) {
+        return Collector.of(
+                StripedSummary::new,
+                (summary, element) -> summary.accept(mapper.applyAsLong(element)),
+                StripedSummary::combine,
+                StripedSummary::toStatistics,
+                CONCURRENT, UNORDERED
+        );
+    }
+
+    /**
+     * 按 long 键计数，等价于 groupingBy(key, counting())，但键和计数都不装箱：
+     * 键按散列分到 {@value #COUNTING_STRIPES} 个各自加锁的 {@link LongLongHashMap} 中，最后合并成一个
+     */
+    public static <T> Collector<T, ?, LongLongHashMap> countingByLong(ToLongFunction<? super T> keyMapper) {
+        return Collector.of(
+                StripedCounter::new,
+                (counter, element) -> counter.increment(keyMapper.applyAsLong(element)),
+                StripedCounter::combine,
+                StripedCounter::toMap,
+                CONCURRENT, UNORDERED
+        );
+    }
+
+    private static final class StripedSummary {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final LongAccumulator min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+        private final LongAccumulator max = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+        void accept(long value) {
+            count.increment();
+            sum.add(value);
+            min.accumulate(value);
+            max.accumulate(value);
+        }
+
+        StripedSummary combine(StripedSummary other) {
+            count.add(other.count.sum());
+            sum.add(other.sum.sum());
+            min.accumulate(other.min.get());
+            max.accumulate(other.max.get());
+            return this;
+        }
+
+        LongSummaryStatistics toStatistics() {
+            final long n = count.sum();
+            return n == 0
+                    ? new LongSummaryStatistics()
+                    : new LongSummaryStatistics(n, min.get(), max.get(), sum.sum());
+        }
+    }
+
+    private static final class StripedCounter {
+        private final LongLongHashMap[] stripes = new LongLongHashMap[COUNTING_STRIPES];
+
+        StripedCounter() {
+            for (int i = 0; i < stripes.length; i++) {
+                stripes[i] = new LongLongHashMap();
+            }
+        }
+
+        void increment(long key) {
+            final LongLongHashMap stripe = stripes[stripeOf(key)];
+            synchronized (stripe) {
+                stripe.addTo(key, 1L);
+            }
+        }
+
+        StripedCounter combine(StripedCounter other) {
+            for (LongLongHashMap stripe : other.stripes) {
+                stripe.forEach((key, count) -> {
+                    final LongLongHashMap target = stripes[stripeOf(key)];
+                    synchronized (target) {
+                        target.addTo(key, count);
+                    }
+                });
+            }
+            return this;
+        }
+
+        /**
+         * 同一个键只会落在一个分段里，合并时不会有重复的键
+         */
+        LongLongHashMap toMap() {
+            int size = 0;
+            for (LongLongHashMap stripe : stripes) {
+                size += stripe.size();
+            }
+            final LongLongHashMap result = new LongLongHashMap(size);
+            for (LongLongHashMap stripe : stripes) {
+                synchronized (stripe) {
+                    stripe.forEach((key, count) -> result.put(key, count, 0L));
+                }
+            }
+            return result;
+        }
+
+        private static int stripeOf(long key) {
+            final long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h >>> 58);
+        }
+    }
+}
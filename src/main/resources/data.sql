@@ -3,3 +3,8 @@ VALUES
         ('zhangsan', '张三', '1234', 'zhangsan@local.dev', '13000000001', 35, true),
         ('lisi', '李四', '1234', 'lisi@local.dev', '13000000002', 32, true),
         ('wangwu', '王五', '1234', 'wangwu@local.dev', '13100000001', 41, true);
+
+INSERT INTO mooc_user_roles(user_id, role)
+SELECT id, 'ROLE_ADMIN' FROM mooc_users WHERE username IN ('zhangsan', 'lisi');
+INSERT INTO mooc_user_roles(user_id, role)
+SELECT id, 'ROLE_USER' FROM mooc_users WHERE username IN ('zhangsan', 'wangwu');
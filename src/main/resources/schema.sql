@@ -1,3 +1,4 @@
+DROP TABLE IF EXISTS mooc_user_roles;
 DROP TABLE IF EXISTS mooc_users;
 CREATE TABLE mooc_users
 (
@@ -9,8 +10,19 @@ CREATE TABLE mooc_users
     password_hash           VARCHAR(80)  NOT NULL,
     username                VARCHAR(50)  NOT NULL,
     age                     INT          NOT NULL,
+    name_sort_key           VARCHAR(2048),
     PRIMARY KEY (id),
     CONSTRAINT uk_mooc_users_username UNIQUE (username),
     CONSTRAINT uk_mooc_users_mobile UNIQUE (mobile),
-    CONSTRAINT uk_mooc_users_email UNIQUE (email)
-) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
\ No newline at end of file
+    CONSTRAINT uk_mooc_users_email UNIQUE (email),
+    CONSTRAINT ck_mooc_users_age CHECK (age BETWEEN 0 AND 150)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+CREATE INDEX idx_mooc_users_name_sort_key ON mooc_users (name_sort_key, id);
+CREATE TABLE mooc_user_roles
+(
+    user_id                 BIGINT       NOT NULL,
+    role                    VARCHAR(50)  NOT NULL,
+    PRIMARY KEY (user_id, role),
+    CONSTRAINT fk_mooc_user_roles_user_id FOREIGN KEY (user_id) REFERENCES mooc_users (id) ON DELETE CASCADE
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+CREATE INDEX idx_mooc_user_roles_role ON mooc_user_roles (role, user_id);
@@ -0,0 +1,34 @@
+package com.imooc.stream.bench;
+
+import com.imooc.stream.domain.User;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * 为基准测试生成确定性的用户数据，姓名取自常见姓氏和名字的组合
+ */
+public final class BenchmarkUsers {
+    private static final String[] FAMILY_NAMES = {"张", "李", "王", "赵", "刘", "陈", "杨", "黄", "周", "吴"};
+    private static final String[] GIVEN_NAMES = {"三", "四", "五", "六", "伟", "芳", "娜", "敏", "静", "磊", "洋", "艳"};
+
+    private BenchmarkUsers() {
+    }
+
+    public static List<User> generate(int size) {
+        final Random random = new Random(size);
+        return IntStream.rangeClosed(1, size)
+                .mapToObj(i -> User.builder()
+                        .id((long) i)
+                        .username("user" + i)
+                        .name(FAMILY_NAMES[random.nextInt(FAMILY_NAMES.length)] + GIVEN_NAMES[random.nextInt(GIVEN_NAMES.length)])
+                        .mobile(String.valueOf(13_000_000_000L + i))
+                        .email("user" + i + "@local.dev")
+                        .age(18 + random.nextInt(60))
+                        .enabled(random.nextInt(10) != 0)
+                        .build())
+                .collect(Collectors.toList());
+    }
+}
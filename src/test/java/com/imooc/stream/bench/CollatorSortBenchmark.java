@@ -0,0 +1,56 @@
+package com.imooc.stream.bench;
+
+import com.imooc.stream.domain.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.AbstractMap;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * 按中文姓名排序：每次比较都调用 {@link Collator#compare(String, String)}，
+ * 与先为每个元素计算一次 {@link CollationKey} 再按 key 排序的对比
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CollatorSortBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private List<User> users;
+    private Collator collator;
+
+    @Setup
+    public void setup() {
+        users = BenchmarkUsers.generate(size);
+        collator = Collator.getInstance(Locale.CHINA);
+    }
+
+    @Benchmark
+    public List<User> sortedWithCollator() {
+        return users.stream()
+                .sorted(Comparator.comparing(User::getName, collator))
+                .collect(toList());
+    }
+
+    @Benchmark
+    public List<User> sortedWithCollationKeys() {
+        return users.stream()
+                .map(user -> new AbstractMap.SimpleImmutableEntry<>(collator.getCollationKey(user.getName()), user))
+                .sorted(Map.Entry.comparingByKey())
+                .map(Map.Entry::getValue)
+                .collect(toList());
+    }
+}
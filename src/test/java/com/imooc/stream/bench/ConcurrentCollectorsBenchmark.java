@@ -0,0 +1,88 @@
+package com.imooc.stream.bench;
+
+import com.imooc.stream.domain.User;
+import com.imooc.stream.util.LongLongHashMap;
+import com.imooc.stream.util.collectors.ConcurrentCollectors;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.LongSummaryStatistics;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static java.util.stream.Collectors.*;
+
+/**
+ * 并行流中 {@link ConcurrentCollectors} 与 JDK Collectors 对应写法的对比，
+ * JDK 版本为每个子任务各建容器再两两合并
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ConcurrentCollectorsBenchmark {
+
+    @Param({"100000", "1000000"})
+    private int size;
+
+    private List<User> users;
+
+    @Setup
+    public void setup() {
+        users = BenchmarkUsers.generate(size);
+    }
+
+    @Benchmark
+    public TreeMap<String, User> jdkToTreeMap() {
+        return users.parallelStream()
+                .collect(toMap(User::getUsername, Function.identity(), (a, b) -> a, TreeMap::new));
+    }
+
+    @Benchmark
+    public ConcurrentSkipListMap<String, User> toConcurrentSortedMap() {
+        return users.parallelStream()
+                .collect(ConcurrentCollectors.toConcurrentSortedMap(User::getUsername, Function.identity(), (a, b) -> a));
+    }
+
+    @Benchmark
+    public Map<Integer, List<User>> jdkGroupingBy() {
+        return users.parallelStream().collect(groupingBy(User::getAge));
+    }
+
+    @Benchmark
+    public ConcurrentMap<Integer, List<User>> jdkGroupingByConcurrent() {
+        return users.parallelStream().collect(groupingByConcurrent(User::getAge));
+    }
+
+    @Benchmark
+    public ConcurrentMap<Integer, Queue<User>> groupingByConcurrentQueue() {
+        return users.parallelStream().collect(ConcurrentCollectors.groupingByConcurrentQueue(User::getAge));
+    }
+
+    @Benchmark
+    public LongSummaryStatistics jdkSummarizingLong() {
+        return users.parallelStream().collect(summarizingLong(User::getAge));
+    }
+
+    @Benchmark
+    public LongSummaryStatistics stripedSummarizingLong() {
+        return users.parallelStream().collect(ConcurrentCollectors.summarizingLong(User::getAge));
+    }
+
+    @Benchmark
+    public Map<Long, Long> jdkCountingByKey() {
+        return users.parallelStream().collect(groupingBy(user -> user.getId() % 10_000, counting()));
+    }
+
+    @Benchmark
+    public LongLongHashMap countingByLong() {
+        return users.parallelStream().collect(ConcurrentCollectors.countingByLong(user -> user.getId() % 10_000));
+    }
+}
@@ -0,0 +1,58 @@
+package com.imooc.stream.bench;
+
+import com.imooc.stream.domain.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.stream.Collectors.*;
+
+/**
+ * 用一个 hashCode 恒为 31 的子类复现修复前的 User：所有元素落进同一个桶，
+ * 每次插入都要遍历整个桶，整体退化为 O(n²)。10000 个用户的 distinct 已经需要约 1 秒，
+ * 1M 规模单次调用需要数小时，因此这里只测到 10000，与 {@link UserHashBenchmark} 相同规模的结果对比，再按平方关系外推
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 1, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class LegacyUserHashBenchmark {
+
+    @Param({"1000", "10000"})
+    private int size;
+
+    private List<User> users;
+
+    @Setup
+    public void setup() {
+        users = BenchmarkUsers.generate(size).stream().map(LegacyHashUser::new).collect(toList());
+    }
+
+    @Benchmark
+    public long distinct() {
+        return users.stream().distinct().count();
+    }
+
+    @Benchmark
+    public Map<Boolean, List<User>> groupingByIntoSets() {
+        return users.stream().collect(groupingBy(User::isEnabled, collectingAndThen(toSet(), List::copyOf)));
+    }
+
+    static class LegacyHashUser extends User {
+        private static final long serialVersionUID = 1L;
+
+        LegacyHashUser(User user) {
+            setId(user.getId());
+            setEnabled(user.isEnabled());
+        }
+
+        @Override
+        public int hashCode() {
+            return 31;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.imooc.stream.bench;
+
+import com.imooc.stream.util.PrimeSieve;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * ParallelStreamTests.isPrime 式的试除法（除到 n / 2）与 {@link PrimeSieve} 的对比：
+ * 统计 [0, n) 内的素数个数，以及对已建好的筛做逐个判定
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class PrimeBenchmark {
+
+    @Param({"10000", "100000"})
+    private int n;
+
+    private PrimeSieve sieve;
+
+    @Setup
+    public void setup() {
+        sieve = PrimeSieve.of(n);
+    }
+
+    @Benchmark
+    public long trialDivisionSequential() {
+        return IntStream.range(0, n).filter(PrimeBenchmark::isPrime).count();
+    }
+
+    @Benchmark
+    public long trialDivisionParallel() {
+        return IntStream.range(0, n).parallel().filter(PrimeBenchmark::isPrime).count();
+    }
+
+    @Benchmark
+    public long sieveBuildAndCount() {
+        return PrimeSieve.of(n).primes().count();
+    }
+
+    @Benchmark
+    public long sieveIsPrime() {
+        return IntStream.range(0, n).filter(sieve::isPrime).count();
+    }
+
+    private static boolean isPrime(int number) {
+        if (number <= 1) return false;
+        return !IntStream.rangeClosed(2, number / 2)
+                .anyMatch(i -> number % i == 0);
+    }
+}
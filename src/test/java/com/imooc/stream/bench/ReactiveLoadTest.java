@@ -0,0 +1,111 @@
+package com.imooc.stream.bench;
+
+import com.imooc.stream.StreamApplication;
+import org.springframework.boot.SpringApplication;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 对比 MVC（/api）与响应式（/api/v2）接口在高并发下的线程数和尾延迟。
+ * 在同一个 JVM 中以随机端口启动应用（每个接口各启动一次），客户端只用 {@value #CLIENT_THREADS} 个线程发送异步请求，
+ * 线程峰值的增量基本都来自服务端。
+ * <p>
+ * 运行：mvn -B -q test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.imooc.stream.bench.ReactiveLoadTest -Dexec.args="并发数 请求数"
+ */
+public class ReactiveLoadTest {
+    private static final int CLIENT_THREADS = 4;
+    private static final String[][] TARGETS = {
+            {"mvc", "/api/users?page=0&size=50"},
+            {"reactive", "/api/v2/users?limit=50"},
+    };
+
+    public static void main(String[] args) throws Exception {
+        final int concurrency = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        final int requests = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        final ExecutorService clientExecutor = Executors.newFixedThreadPool(CLIENT_THREADS);
+        final HttpClient client = HttpClient.newBuilder()
+                .executor(clientExecutor)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        try {
+            for (String[] target : TARGETS) {
+                // 每个目标各自启动一次应用，MVC 扩容出的 Tomcat 线程不会计入响应式接口
+                final var context = SpringApplication.run(StreamApplication.class,
+                        "--server.port=0",
+                        "--logging.level.org.springframework=INFO",
+                        "--logging.level.com.imooc=INFO");
+                try {
+                    final URI uri = URI.create("http://localhost:"
+                            + context.getEnvironment().getProperty("local.server.port") + target[1]);
+                    final var threads = ManagementFactory.getThreadMXBean();
+                    final int before = threads.getThreadCount();
+                    threads.resetPeakThreadCount();
+                    run(client, uri, concurrency, requests / 10);
+                    final Result result = run(client, uri, concurrency, requests);
+                    System.out.printf("%-8s concurrency=%d requests=%d errors=%d threads=%d->%d %.0f req/s p50=%.2fms p99=%.2fms p99.9=%.2fms max=%.2fms%n",
+                            target[0], concurrency, requests, result.errors, before, threads.getPeakThreadCount(),
+                            requests / (result.elapsedNanos / 1e9),
+                            result.percentile(0.50), result.percentile(0.99), result.percentile(0.999), result.percentile(1.0));
+                } finally {
+                    context.close();
+                }
+            }
+        } finally {
+            clientExecutor.shutdownNow();
+        }
+    }
+
+    private static Result run(HttpClient client, URI uri, int concurrency, int requests) throws InterruptedException {
+        final HttpRequest request = HttpRequest.newBuilder(uri).header("Accept", "application/json").GET().build();
+        final Semaphore inFlight = new Semaphore(concurrency);
+        final long[] latencies = new long[requests];
+        final AtomicInteger errors = new AtomicInteger();
+        final long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            inFlight.acquire();
+            final int index = i;
+            final long sent = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .handle((response, error) -> {
+                        latencies[index] = System.nanoTime() - sent;
+                        if (error != null || response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                        inFlight.release();
+                        return null;
+                    });
+        }
+        inFlight.acquire(concurrency);
+        final long elapsed = System.nanoTime() - start;
+        Arrays.sort(latencies);
+        return new Result(latencies, errors.get(), elapsed);
+    }
+
+    private static final class Result {
+        private final long[] sortedLatencies;
+        private final int errors;
+        private final long elapsedNanos;
+
+        Result(long[] sortedLatencies, int errors, long elapsedNanos) {
+            this.sortedLatencies = sortedLatencies;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        double percentile(double p) {
+            final int index = (int) Math.min(sortedLatencies.length - 1, Math.ceil(p * sortedLatencies.length) - 1);
+            return sortedLatencies[Math.max(0, index)] / 1e6;
+        }
+    }
+}
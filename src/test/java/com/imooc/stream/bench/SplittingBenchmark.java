@@ -0,0 +1,73 @@
+package com.imooc.stream.bench;
+
+import com.imooc.stream.util.Streams;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * 数据源能否被均匀拆分对并行加速比的影响：每个元素做 work 个单位的 CPU 计算，
+ * 对比 Stream.iterate().limit() 与 {@link Streams#arithmetic(int, int, int)}，
+ * 以及 spliteratorUnknownSize(iterator) 与 {@link Streams#fromIterator(java.util.Iterator, int, int)}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class SplittingBenchmark {
+
+    @Param({"1000", "100000"})
+    private int size;
+
+    @Param({"1000"})
+    private int work;
+
+    private List<Integer> source;
+
+    @Setup
+    public void setup() {
+        source = IntStream.range(0, size).boxed().collect(toList());
+    }
+
+    private long cost(long n) {
+        Blackhole.consumeCPU(work);
+        return n;
+    }
+
+    @Benchmark
+    public long iterateSequential() {
+        return Stream.iterate(0, n -> n + 1).limit(size).mapToLong(this::cost).sum();
+    }
+
+    @Benchmark
+    public long iterateParallel() {
+        return Stream.iterate(0, n -> n + 1).limit(size).parallel().mapToLong(this::cost).sum();
+    }
+
+    @Benchmark
+    public long arithmeticParallel() {
+        return Streams.arithmetic(0, 1, size).parallel().mapToLong(this::cost).sum();
+    }
+
+    @Benchmark
+    public long unknownSizeIteratorParallel() {
+        Spliterator<Integer> spliterator = Spliterators.spliteratorUnknownSize(source.iterator(), Spliterator.ORDERED);
+        return StreamSupport.stream(spliterator, true).mapToLong(this::cost).sum();
+    }
+
+    @Benchmark
+    public long batchingIteratorParallel() {
+        return Streams.fromIterator(source.iterator(), 16, 4096).parallel().mapToLong(this::cost).sum();
+    }
+}
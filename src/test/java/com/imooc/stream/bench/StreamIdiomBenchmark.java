@@ -0,0 +1,90 @@
+package com.imooc.stream.bench;
+
+import com.imooc.stream.domain.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static java.util.stream.Collectors.summingInt;
+import static java.util.stream.Collectors.toMap;
+
+/**
+ * 代码中常用的流写法之间的对比：顺序与并行、reduce / collect / 原始类型 sum、
+ * 装箱流与 IntStream、toMap 与手写循环。
+ * 默认规模到 1e6；1e7 需要更大的堆，例如
+ * -Dbenchmark="StreamIdiom -p size=10000000 -jvmArgsAppend -Xmx16g"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class StreamIdiomBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private List<User> users;
+
+    @Setup
+    public void setup() {
+        users = BenchmarkUsers.generate(size);
+    }
+
+    @Benchmark
+    public long sequentialFilterSum() {
+        return users.stream().filter(User::isEnabled).mapToLong(User::getAge).sum();
+    }
+
+    @Benchmark
+    public long parallelFilterSum() {
+        return users.parallelStream().filter(User::isEnabled).mapToLong(User::getAge).sum();
+    }
+
+    @Benchmark
+    public int sumByReduce() {
+        return users.stream().map(User::getAge).reduce(0, Integer::sum);
+    }
+
+    @Benchmark
+    public int sumByCollect() {
+        return users.stream().collect(summingInt(User::getAge));
+    }
+
+    @Benchmark
+    public int sumByIntStream() {
+        return users.stream().mapToInt(User::getAge).sum();
+    }
+
+    @Benchmark
+    public Optional<Integer> maxBoxed() {
+        return users.stream().map(User::getAge).max(Comparator.naturalOrder());
+    }
+
+    @Benchmark
+    public OptionalInt maxIntStream() {
+        return users.stream().mapToInt(User::getAge).max();
+    }
+
+    @Benchmark
+    public Map<String, User> indexByToMap() {
+        return users.stream().collect(toMap(User::getUsername, Function.identity()));
+    }
+
+    @Benchmark
+    public Map<String, User> indexByLoop() {
+        Map<String, User> byUsername = new HashMap<>((int) (users.size() / 0.75f) + 1);
+        for (User user : users) {
+            byUsername.put(user.getUsername(), user);
+        }
+        return byUsername;
+    }
+}
@@ -0,0 +1,89 @@
+package com.imooc.stream.bench;
+
+import com.imooc.stream.domain.User;
+import com.imooc.stream.util.UserIdIndex;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.stream.Collectors.*;
+
+/**
+ * 修复 hashCode 之后基于散列的流操作，以及按 id 关联时 {@link UserIdIndex} 与 HashMap&lt;Long, User&gt; 的对比；
+ * 修复前的基线见 {@link LegacyUserHashBenchmark}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class UserHashBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int size;
+
+    private List<User> users;
+    private long[] probeIds;
+    private Map<Long, User> boxedMap;
+    private UserIdIndex index;
+
+    @Setup
+    public void setup() {
+        users = BenchmarkUsers.generate(size);
+        // 关联时的探测顺序与建表顺序无关，打乱以免顺序 id 带来的缓存局部性掩盖真实差异
+        final List<Long> ids = users.stream().map(User::getId).collect(toList());
+        Collections.shuffle(ids, new Random(size));
+        probeIds = ids.stream().mapToLong(Long::longValue).toArray();
+        boxedMap = buildBoxedHashMap();
+        index = buildUserIdIndex();
+    }
+
+    @Benchmark
+    public long distinct() {
+        return users.stream().distinct().count();
+    }
+
+    @Benchmark
+    public Map<Boolean, List<User>> groupingByIntoSets() {
+        return users.stream().collect(groupingBy(User::isEnabled, collectingAndThen(toSet(), List::copyOf)));
+    }
+
+    @Benchmark
+    public Map<Long, User> buildBoxedHashMap() {
+        Map<Long, User> byId = new HashMap<>();
+        for (User user : users) {
+            byId.put(user.getId(), user);
+        }
+        return byId;
+    }
+
+    @Benchmark
+    public UserIdIndex buildUserIdIndex() {
+        UserIdIndex byId = new UserIdIndex(users.size());
+        for (User user : users) {
+            byId.put(user);
+        }
+        return byId;
+    }
+
+    @Benchmark
+    public void probeBoxedHashMap(Blackhole blackhole) {
+        for (long id : probeIds) {
+            blackhole.consume(boxedMap.get(id));
+        }
+    }
+
+    @Benchmark
+    public void probeUserIdIndex(Blackhole blackhole) {
+        for (long id : probeIds) {
+            blackhole.consume(index.get(id));
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.imooc.stream.bench;
+
+import com.imooc.stream.domain.User;
+import com.imooc.stream.domain.dto.UserDTO;
+import com.imooc.stream.service.UserExportService;
+import com.imooc.stream.service.UserSearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 搜索框前缀检索的单次延迟，SampleTime 模式输出 p50 / p99 / p99.99 等分位数
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class UserSearchBenchmark {
+    private static final String[] QUERIES = {"user12", "张", "李小", "zs", "wm", "1300001", "4567", "欧阳"};
+
+    @Param({"1000000"})
+    private int size;
+
+    private UserSearchIndex searchIndex;
+
+    @Setup
+    public void setup() {
+        final List<User> users = BenchmarkUsers.generate(size);
+        searchIndex = new UserSearchIndex(new UserExportService(null, null, null) {
+            @Override
+            public void forEachUser(Consumer<User> consumer) {
+                users.forEach(consumer);
+            }
+        });
+        searchIndex.rebuild();
+    }
+
+    @Benchmark
+    public List<UserDTO> search() {
+        return searchIndex.search(QUERIES[ThreadLocalRandom.current().nextInt(QUERIES.length)], 10);
+    }
+}
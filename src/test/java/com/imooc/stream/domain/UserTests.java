@@ -0,0 +1,50 @@
+package com.imooc.stream.domain;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserTests {
+
+    @Test
+    public void givenPersistedUsers_whenHashCode_thenConsistentWithEquals() {
+        val persisted = User.builder().id(7L).username("zhangsan").build();
+        val copy = persisted.withName("张三");
+        assertEquals(persisted, copy);
+        assertEquals(persisted.hashCode(), copy.hashCode());
+    }
+
+    @Test
+    public void givenTransientUsers_whenHashCode_thenOnlyEqualToThemselves() {
+        val first = User.builder().username("lisi").build();
+        val second = User.builder().username("lisi").build();
+        assertNotEquals(first, second);
+        assertEquals(first.hashCode(), first.hashCode());
+        assertEquals(2, new HashSet<>(List.of(first, second)).size());
+    }
+
+    @Test
+    public void givenTransientUserInHashSet_whenSaved_thenStillFound() {
+        val user = User.builder().username("wangwu").build();
+        val users = new HashSet<User>();
+        users.add(user);
+        user.setId(3L);
+        assertTrue(users.contains(user));
+        assertTrue(users.contains(User.builder().id(3L).username("wangwu").build()));
+    }
+
+    @Test
+    public void givenManyUsers_whenHashCode_thenSpreadAcrossBuckets() {
+        val distinctHashes = LongStream.rangeClosed(1, 1_000)
+                .mapToObj(id -> User.builder().id(id).username("user" + id).build())
+                .map(User::hashCode)
+                .collect(Collectors.toSet());
+        assertEquals(1_000, distinctHashes.size());
+    }
+}
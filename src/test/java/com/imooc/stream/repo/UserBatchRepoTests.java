@@ -0,0 +1,57 @@
+package com.imooc.stream.repo;
+
+import com.imooc.stream.domain.User;
+import com.imooc.stream.util.UserStatsCounter;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 基于 data.sql：zhangsan 35 岁、lisi 32 岁、wangwu 41 岁，全部激活
+ */
+@SpringBootTest
+public class UserBatchRepoTests {
+    @Autowired
+    private UserBatchRepo userBatchRepo;
+    @Autowired
+    private UserRepo userRepo;
+
+    @Test
+    public void givenWidth_whenSummarizeByAgeBucket_thenGroupedInDatabase() {
+        val buckets = userBatchRepo.summarizeByAgeBucket(10, null);
+        assertEquals(2, buckets.size());
+        val thirties = buckets.get(0);
+        assertEquals(30, thirties.getBucket());
+        assertEquals(2, thirties.getCount());
+        assertEquals(32, thirties.getMin());
+        assertEquals(35, thirties.getMax());
+        assertEquals(33.5, thirties.getAverage(), 1e-9);
+        assertEquals(67, thirties.getSum());
+        val forties = buckets.get(1);
+        assertEquals(40, forties.getBucket());
+        assertEquals(1, forties.getCount());
+    }
+
+    @Test
+    public void givenEnabledFilter_whenSummarizeByAgeBucket_thenOnlyMatchingUsers() {
+        assertEquals(3, userBatchRepo.summarizeByAgeBucket(100, true).get(0).getCount());
+        assertTrue(userBatchRepo.summarizeByAgeBucket(100, false).isEmpty());
+    }
+
+    @Test
+    public void givenAgeOutOfRange_whenSave_thenRejectedBySchema() {
+        val user = User.builder()
+                .username("too-old")
+                .name("太老")
+                .mobile("13900000150")
+                .email("too-old@local.dev")
+                .age(UserStatsCounter.MAX_AGE + 1)
+                .build();
+        assertThrows(DataIntegrityViolationException.class, () -> userRepo.save(user));
+        assertTrue(userRepo.findOptionalByUsername("too-old").isEmpty());
+    }
+}
@@ -0,0 +1,102 @@
+package com.imooc.stream.rest;
+
+import lombok.val;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static com.imooc.stream.rest.UserResourceTests.addUserJson;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * /api/v2 的处理方法返回 Mono / Flux，请求先进入异步模式，再由 asyncDispatch 取回结果
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ReactiveUserResourceTests {
+    private static final String USERNAME = "reactive-test";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserResource userResource;
+
+    @AfterEach
+    public void cleanup() {
+        userResource.deleteUserByUsername(USERNAME);
+    }
+
+    @Test
+    public void givenUsername_whenGet_thenUserOrNotFound() throws Exception {
+        perform(get("/api/v2/users/zhangsan"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value("zhangsan"));
+        perform(get("/api/v2/users/nobody"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void givenLimit_whenListAsJson_thenFirstUsersById() throws Exception {
+        perform(get("/api/v2/users").param("limit", "2").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].username").value("zhangsan"))
+                .andExpect(jsonPath("$[1].username").value("lisi"));
+    }
+
+    @Test
+    public void givenNewUser_whenCreateTwice_thenSecondConflicts() throws Exception {
+        perform(post("/api/v2/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(addUserJson(USERNAME, "响应式", "13700000031")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value(USERNAME));
+        perform(post("/api/v2/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(addUserJson(USERNAME, "响应式", "13700000032").replace(USERNAME + "@", "other@")))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.field").value("username"));
+    }
+
+    @Test
+    public void givenExistingUser_whenUpdateThenDelete_thenChangesVisible() throws Exception {
+        perform(post("/api/v2/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(addUserJson(USERNAME, "响应式", "13700000031")))
+                .andExpect(status().isOk());
+        perform(put("/api/v2/users/" + USERNAME)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"mobile\":\"13700000033\",\"name\":\"改名\",\"email\":\"" + USERNAME + "@local.dev\"}"))
+                .andExpect(status().isNoContent());
+        perform(get("/api/v2/users/" + USERNAME))
+                .andExpect(jsonPath("$.name").value("改名"))
+                .andExpect(jsonPath("$.mobile").value("13700000033"));
+
+        perform(delete("/api/v2/users/" + USERNAME))
+                .andExpect(status().isOk());
+        perform(get("/api/v2/users/" + USERNAME))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void givenMissingUser_whenUpdate_thenNotFound() throws Exception {
+        perform(put("/api/v2/users/nobody")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"mobile\":\"13700000034\",\"name\":\"无\",\"email\":\"nobody@local.dev\"}"))
+                .andExpect(status().isNotFound());
+    }
+
+    private ResultActions perform(RequestBuilder request) throws Exception {
+        val started = mockMvc.perform(request)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started));
+    }
+}
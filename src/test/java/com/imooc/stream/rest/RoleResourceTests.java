@@ -0,0 +1,42 @@
+package com.imooc.stream.rest;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * 基于 data.sql：zhangsan 拥有 ROLE_ADMIN 和 ROLE_USER，lisi 只有 ROLE_ADMIN，wangwu 只有 ROLE_USER
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class RoleResourceTests {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void givenSeedRoles_whenCountUsersByRole_thenOneRowPerRole() throws Exception {
+        mockMvc.perform(get("/api/roles"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[?(@.role == 'ROLE_ADMIN')].users").value(contains(2)))
+                .andExpect(jsonPath("$[?(@.role == 'ROLE_USER')].users").value(contains(2)));
+    }
+
+    @Test
+    public void givenRole_whenGetUsersByRole_thenPagedMembers() throws Exception {
+        mockMvc.perform(get("/api/roles/ROLE_ADMIN/users").param("sort", "id").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(2))
+                .andExpect(jsonPath("$.data[*].username").value(contains("zhangsan")))
+                .andExpect(jsonPath("$.data[0].roles").value(contains("ROLE_ADMIN", "ROLE_USER")));
+        mockMvc.perform(get("/api/roles/ROLE_NONE/users"))
+                .andExpect(jsonPath("$.total").value(0))
+                .andExpect(jsonPath("$.data").isEmpty());
+    }
+}
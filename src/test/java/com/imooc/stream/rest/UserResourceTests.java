@@ -0,0 +1,189 @@
+package com.imooc.stream.rest;
+
+import com.imooc.stream.domain.dto.AddUserDTO;
+import com.imooc.stream.domain.dto.BulkDeleteUserDTO;
+import com.imooc.stream.domain.dto.UpdateUserDTO;
+import com.imooc.stream.repo.UserRepo;
+import com.imooc.stream.util.SqlStatementCounter;
+import lombok.val;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class UserResourceTests {
+    private static final String USERNAME = "resource-test";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepo userRepo;
+    @Autowired
+    private UserResource userResource;
+
+    @RegisterExtension
+    SqlStatementCounter sql = new SqlStatementCounter();
+
+    /**
+     * 经过 UserResource 删除，内存索引随事件同步，不影响其他测试
+     */
+    @AfterEach
+    public void cleanup() {
+        List.of(USERNAME, "import-1", "import-2").forEach(userResource::deleteUserByUsername);
+    }
+
+    @Test
+    public void givenMaximumLengthName_whenAddAndUpdate_thenSortKeyFits() throws Exception {
+        mockMvc.perform(post("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(addUserJson(USERNAME, "ª".repeat(50), "13700000001")))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/api/users/" + USERNAME)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"mobile\":\"13700000001\",\"name\":\"" + "龥".repeat(50) + "\",\"email\":\"resource-test@local.dev\"}"))
+                .andExpect(status().isNoContent());
+        assertEquals("龥".repeat(50), userRepo.findOptionalByUsername(USERNAME).orElseThrow().getName());
+    }
+
+    @Test
+    public void givenRowRejectedForDuplicateMobile_whenImport_thenUsernameStillAvailable() throws Exception {
+        val ndjson = addUserJson("import-1", "甲", "13700000011") + "\n"
+                + addUserJson("import-2", "乙", "13700000011").replace("import-2@", "import-x@") + "\n"
+                + addUserJson("import-2", "丙", "13700000012") + "\n"
+                + "null\n";
+        mockMvc.perform(post("/api/users/import")
+                .contentType("application/x-ndjson")
+                .content(ndjson.getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.failed").value(2))
+                .andExpect(jsonPath("$.failures[?(@.line == 2)].field").value(hasItem("mobile")))
+                .andExpect(jsonPath("$.failures[?(@.line == 4)]").isNotEmpty());
+    }
+
+    @Test
+    public void givenImportedThenDeletedUser_whenFindByMobile_thenIndexFollowsEvents() throws Exception {
+        mockMvc.perform(post("/api/users/import")
+                .contentType("application/x-ndjson")
+                .content(addUserJson("import-1", "甲", "13700000021").getBytes(StandardCharsets.UTF_8)))
+                .andExpect(jsonPath("$.imported").value(1));
+        val id = userRepo.findOptionalByUsername("import-1").orElseThrow().getId();
+        mockMvc.perform(get("/api/users/by-mobile/13700000021"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(id));
+        mockMvc.perform(get("/api/users/search").param("q", "import-"))
+                .andExpect(jsonPath("$[*].username").value(hasItem("import-1")));
+
+        mockMvc.perform(delete("/api/users/import-1")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/users/by-mobile/13700000021")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/users/search").param("q", "import-"))
+                .andExpect(jsonPath("$").isEmpty());
+    }
+
+    @Test
+    public void givenImportedUsers_whenBulkDeleteByFilter_thenIndexesAndStatsFollow() throws Exception {
+        val total = userResource.getLiveUserStats(10).getTotal();
+        mockMvc.perform(post("/api/users/import")
+                .contentType("application/x-ndjson")
+                .content((addUserJson("import-1", "甲", "13700000021") + "\n" + addUserJson("import-2", "乙", "13700000022"))
+                        .getBytes(StandardCharsets.UTF_8)))
+                .andExpect(jsonPath("$.imported").value(2));
+        assertEquals(total + 2, userResource.getLiveUserStats(10).getTotal());
+
+        // 导入的用户年龄为 0，种子数据都大于 0
+        val result = userResource.deleteUsers(new BulkDeleteUserDTO(null, null, null, 0));
+        assertEquals(2, result.getDeleted());
+        assertEquals(total, userResource.getLiveUserStats(10).getTotal());
+        mockMvc.perform(get("/api/users/by-mobile/13700000022")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/users/search").param("q", "import-"))
+                .andExpect(jsonPath("$").isEmpty());
+    }
+
+    /**
+     * 直接调用处理方法而不是经过 MockMvc：请求经过 SqlTrackingFilter 时会在同一线程上开始它自己的统计
+     */
+    @Test
+    @SqlStatementCounter.AtMost(1)
+    public void givenNewUser_whenAddUser_thenSingleInsert() {
+        userResource.addUser(new AddUserDTO(USERNAME, "13700000001", "测试", USERNAME + "@local.dev"));
+        sql.assertStatements(1);
+    }
+
+    @Test
+    @SqlStatementCounter.AtMost(1)
+    public void givenExistingUser_whenDeleteUserByUsername_thenSingleDelete() {
+        userResource.addUser(new AddUserDTO(USERNAME, "13700000001", "测试", USERNAME + "@local.dev"));
+        sql.reset();
+        userResource.deleteUserByUsername(USERNAME);
+        sql.assertStatements(1);
+    }
+
+    @Test
+    @SqlStatementCounter.AtMost(1)
+    public void givenExistingUser_whenUpdateUserByUsername_thenSingleUpdate() {
+        userResource.addUser(new AddUserDTO(USERNAME, "13700000001", "测试", USERNAME + "@local.dev"));
+        sql.reset();
+        val response = userResource.updateUserByUsername(USERNAME,
+                new UpdateUserDTO("13700000001", "改名", USERNAME + "@local.dev"), null);
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        sql.assertStatements(1);
+    }
+
+    @Test
+    @SqlStatementCounter.AtMost(1)
+    public void givenMissingUser_whenUpdateUserByUsername_thenNotFound() {
+        val response = userResource.updateUserByUsername("nobody",
+                new UpdateUserDTO("13700000009", "无", "nobody@local.dev"), null);
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        sql.assertStatements(1);
+    }
+
+    @Test
+    public void givenCachedUser_whenUpdateThenDelete_thenReadsFollowWrites() throws Exception {
+        mockMvc.perform(post("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(addUserJson(USERNAME, "甲", "13700000021")))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/users/" + USERNAME))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("甲"));
+        val hits = userResource.getUserCacheStats().getHits();
+        mockMvc.perform(get("/api/users/" + USERNAME))
+                .andExpect(jsonPath("$.name").value("甲"));
+        assertEquals(hits + 1, userResource.getUserCacheStats().getHits());
+
+        mockMvc.perform(put("/api/users/" + USERNAME)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"mobile\":\"13700000022\",\"name\":\"乙\",\"email\":\"resource-test@local.dev\"}"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/users/" + USERNAME))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("乙"))
+                .andExpect(jsonPath("$.mobile").value("13700000022"));
+
+        mockMvc.perform(delete("/api/users/" + USERNAME))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/users/" + USERNAME))
+                .andExpect(status().isNotFound());
+    }
+
+    static String addUserJson(String username, String name, String mobile) {
+        return "{\"username\":\"" + username + "\",\"name\":\"" + name + "\",\"mobile\":\"" + mobile
+                + "\",\"email\":\"" + username + "@local.dev\"}";
+    }
+}
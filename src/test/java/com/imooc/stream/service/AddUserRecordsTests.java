@@ -0,0 +1,75 @@
+package com.imooc.stream.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AddUserRecordsTests {
+
+    @Test
+    public void givenQuotedCells_whenSplitCsvLine_thenKeepCommasAndQuotes() {
+        assertEquals(List.of("zhangsan", "张, 三", "say \"hi\"", ""),
+                AddUserRecords.splitCsvLine("zhangsan,\"张, 三\",\"say \"\"hi\"\"\","));
+        assertThrows(IllegalArgumentException.class, () -> AddUserRecords.splitCsvLine("\"open"));
+    }
+
+    @Test
+    public void givenCsvWithHeader_whenRead_thenMapColumnsByName() {
+        val csv = "email,username,mobile,name\n" +
+                "zhangsan@local.dev,zhangsan,13000000001,张三\n" +
+                "\n" +
+                "lisi@local.dev,lisi\n";
+        val records = AddUserRecords.csv(new BufferedReader(new StringReader(csv)));
+        val first = records.next();
+        assertEquals(2, first.getLine());
+        assertEquals("zhangsan", first.getUser().get().getUsername());
+        assertEquals("13000000001", first.getUser().get().getMobile());
+        val second = records.next();
+        assertEquals(4, second.getLine());
+        assertTrue(second.getUser().isFailure());
+        assertFalse(records.hasNext());
+    }
+
+    @Test
+    public void givenQuotedLineBreaks_whenReadCsv_thenKeptInCellAndLinesCounted() {
+        val csv = "username,mobile,name,email\r\n" +
+                "zhangsan,13000000001,\"张\r\n三\",zhangsan@local.dev\r\n" +
+                "lisi,13000000002,\"李\r四\",lisi@local.dev\r" +
+                "wangwu,13100000001,王五,wangwu@local.dev";
+        val records = AddUserRecords.csv(new BufferedReader(new StringReader(csv)));
+        val first = records.next();
+        assertEquals(2, first.getLine());
+        assertEquals("张\r\n三", first.getUser().get().getName());
+        val second = records.next();
+        assertEquals(4, second.getLine());
+        assertEquals("李\r四", second.getUser().get().getName());
+        val third = records.next();
+        assertEquals(5, third.getLine());
+        assertEquals("wangwu@local.dev", third.getUser().get().getEmail());
+        assertFalse(records.hasNext());
+    }
+
+    @Test
+    public void givenNdjson_whenRead_thenReportBadLines() {
+        val ndjson = "{\"username\":\"zhangsan\",\"mobile\":\"13000000001\",\"name\":\"张三\",\"email\":\"z@local.dev\"}\n" +
+                "{oops\n";
+        val records = AddUserRecords.ndjson(new BufferedReader(new StringReader(ndjson)), new ObjectMapper());
+        assertEquals("张三", records.next().getUser().get().getName());
+        assertTrue(records.next().getUser().isFailure());
+        assertFalse(records.hasNext());
+    }
+
+    @Test
+    public void givenNullLiteralLine_whenReadNdjson_thenLineFails() {
+        val records = AddUserRecords.ndjson(new BufferedReader(new StringReader("null\n")), new ObjectMapper());
+        val record = records.next();
+        assertTrue(record.getUser().isFailure());
+        assertEquals(1, record.getLine());
+    }
+}
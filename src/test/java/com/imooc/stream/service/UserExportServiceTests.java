@@ -0,0 +1,79 @@
+package com.imooc.stream.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.imooc.stream.domain.User;
+import com.imooc.stream.domain.dto.AddUserDTO;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 导出的内容经 {@link AddUserRecords} 重新读入后应与原数据一致
+ */
+public class UserExportServiceTests {
+    private static final List<User> USERS = List.of(
+            user(1L, "zhangsan", "张三"),
+            user(2L, "lisi", "李, \"四\""),
+            user(3L, "wangwu", "王\r\n五"),
+            user(4L, "zhaoliu", "赵\r六\n")
+    );
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final UserExportService exportService = new UserExportService(null, null, objectMapper) {
+        @Override
+        public void forEachUser(Consumer<User> consumer) {
+            USERS.forEach(consumer);
+        }
+    };
+
+    @Test
+    public void givenSpecialCharacters_whenExportCsvAndImport_thenRoundTrip() throws IOException {
+        val out = new ByteArrayOutputStream();
+        exportService.exportCsv(out);
+        assertRoundTrip(AddUserRecords.csv(reader(out)));
+    }
+
+    @Test
+    public void givenSpecialCharacters_whenExportNdjsonAndImport_thenRoundTrip() throws IOException {
+        val out = new ByteArrayOutputStream();
+        exportService.exportNdjson(out);
+        assertRoundTrip(AddUserRecords.ndjson(reader(out), objectMapper));
+    }
+
+    private static void assertRoundTrip(Iterator<AddUserRecords.Record> records) {
+        final List<AddUserDTO> imported = new ArrayList<>();
+        records.forEachRemaining(record -> imported.add(record.getUser().get()));
+        assertEquals(USERS.size(), imported.size());
+        for (int i = 0; i < USERS.size(); i++) {
+            assertEquals(USERS.get(i).getUsername(), imported.get(i).getUsername());
+            assertEquals(USERS.get(i).getMobile(), imported.get(i).getMobile());
+            assertEquals(USERS.get(i).getName(), imported.get(i).getName());
+            assertEquals(USERS.get(i).getEmail(), imported.get(i).getEmail());
+        }
+    }
+
+    private static BufferedReader reader(ByteArrayOutputStream out) {
+        return new BufferedReader(new StringReader(out.toString(StandardCharsets.UTF_8)));
+    }
+
+    private static User user(Long id, String username, String name) {
+        return User.builder()
+                .id(id)
+                .username(username)
+                .mobile("1300000000" + id)
+                .name(name)
+                .email(username + "@local.dev")
+                .build();
+    }
+}
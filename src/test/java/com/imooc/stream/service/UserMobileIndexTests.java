@@ -0,0 +1,150 @@
+package com.imooc.stream.service;
+
+import com.imooc.stream.domain.User;
+import com.imooc.stream.domain.UserChangedEvent;
+import com.imooc.stream.repo.UserBatchRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserMobileIndexTests {
+    /**
+     * 充当数据库中的 mooc_users，修改事件处理时从这里重新读取
+     */
+    private final List<User> users = new ArrayList<>();
+    private int reads;
+    private UserMobileIndex mobileIndex;
+
+    @BeforeEach
+    public void setup() {
+        users.add(user(1L, "zhangsan", "13000000001"));
+        users.add(user(2L, "lisi", "13000000002"));
+        mobileIndex = new UserMobileIndex(new UserExportService(null, null, null) {
+            @Override
+            public void forEachUser(Consumer<User> consumer) {
+                users.forEach(consumer);
+            }
+        }, new UserBatchRepo(null) {
+            @Override
+            public List<User> findByUsernameIn(Collection<String> usernames) {
+                return find(usernames, User::getUsername);
+            }
+
+            @Override
+            public List<User> findByMobileIn(Collection<String> mobiles) {
+                return find(mobiles, User::getMobile);
+            }
+        });
+        mobileIndex.afterSingletonsInstantiated();
+    }
+
+    @Test
+    public void givenLoadedUsers_whenFindByMobile_thenId() {
+        assertEquals(OptionalLong.of(1L), mobileIndex.findIdByMobile("13000000001"));
+        assertEquals(OptionalLong.of(2L), mobileIndex.findIdByMobile("13000000002"));
+        assertEquals(OptionalLong.empty(), mobileIndex.findIdByMobile("13000000003"));
+    }
+
+    @Test
+    public void givenInvalidMobile_whenFindByMobile_thenEmpty() {
+        assertEquals(OptionalLong.empty(), mobileIndex.findIdByMobile("1300000000a"));
+        assertEquals(OptionalLong.empty(), mobileIndex.findIdByMobile("130000000012"));
+        assertEquals(OptionalLong.empty(), mobileIndex.findIdByMobile(""));
+    }
+
+    @Test
+    public void givenLeadingZeros_whenEncode_thenDistinct() {
+        assertNotEquals(UserMobileIndex.encode("0123"), UserMobileIndex.encode("123"));
+        assertEquals(-1L, UserMobileIndex.encode("12a"));
+    }
+
+    @Test
+    public void givenLeadingZeros_whenDecode_thenOriginalMobile() {
+        assertEquals("0123", UserMobileIndex.decode(UserMobileIndex.encode("0123")));
+        assertEquals("13000000001", UserMobileIndex.decode(UserMobileIndex.encode("13000000001")));
+    }
+
+    @Test
+    public void givenUpdatedMobile_whenFindByMobile_thenOldNumberRemoved() {
+        update("zhangsan", "13900000009");
+        assertEquals(OptionalLong.empty(), mobileIndex.findIdByMobile("13000000001"));
+        assertEquals(OptionalLong.of(1L), mobileIndex.findIdByMobile("13900000009"));
+        assertEquals(2, mobileIndex.size());
+    }
+
+    @Test
+    public void givenUnchangedMobile_whenUpdated_thenNoRead() {
+        mobileIndex.onUserChanged(UserChangedEvent.updated(User.builder().username("zhangsan").mobile("13000000001").build()));
+        assertEquals(0, reads);
+        assertEquals(OptionalLong.of(1L), mobileIndex.findIdByMobile("13000000001"));
+    }
+
+    @Test
+    public void givenPreviousMobileNotIndexed_whenUpdated_thenNewMobileIndexed() {
+        users.add(user(3L, "wangwu", "unknown"));
+        mobileIndex.rebuild();
+        update("wangwu", "13000000003");
+        assertEquals(OptionalLong.of(3L), mobileIndex.findIdByMobile("13000000003"));
+    }
+
+    @Test
+    public void givenUpdatesOutOfCommitOrder_whenApplied_thenLastCommittedMobileKept() {
+        users.get(0).setMobile("13900000008");
+        users.get(0).setMobile("13900000009");
+        mobileIndex.onUserChanged(UserChangedEvent.updated(User.builder().username("zhangsan").mobile("13900000009").build()));
+        mobileIndex.onUserChanged(UserChangedEvent.updated(User.builder().username("zhangsan").mobile("13900000008").build()));
+        assertEquals(OptionalLong.of(1L), mobileIndex.findIdByMobile("13900000009"));
+        assertEquals(OptionalLong.empty(), mobileIndex.findIdByMobile("13900000008"));
+        assertEquals(OptionalLong.empty(), mobileIndex.findIdByMobile("13000000001"));
+    }
+
+    @Test
+    public void givenMobileTakenOverBeforeOwnerEventApplied_whenApplied_thenNewOwnerIndexed() {
+        users.get(1).setMobile("13900000002");
+        users.get(0).setMobile("13000000002");
+        mobileIndex.onUserChanged(UserChangedEvent.updated(User.builder().username("zhangsan").mobile("13000000002").build()));
+        mobileIndex.onUserChanged(UserChangedEvent.updated(User.builder().username("lisi").mobile("13900000002").build()));
+        assertEquals(OptionalLong.of(1L), mobileIndex.findIdByMobile("13000000002"));
+        assertEquals(OptionalLong.of(2L), mobileIndex.findIdByMobile("13900000002"));
+        assertEquals(OptionalLong.empty(), mobileIndex.findIdByMobile("13000000001"));
+        assertEquals(2, mobileIndex.size());
+    }
+
+    @Test
+    public void givenMobileTakenByAnotherUser_whenStaleDelete_thenKept() {
+        mobileIndex.onUserChanged(UserChangedEvent.created(user(3L, "wangwu", "13000000002")));
+        mobileIndex.onUserChanged(UserChangedEvent.deleted(List.of(user(2L, "lisi", "13000000002"))));
+        assertEquals(OptionalLong.of(3L), mobileIndex.findIdByMobile("13000000002"));
+    }
+
+    @Test
+    public void givenCreatedAndDeletedUsers_whenFindByMobile_thenIndexFollows() {
+        mobileIndex.onUserChanged(UserChangedEvent.created(user(3L, "wangwu", "13000000003")));
+        mobileIndex.onUserChanged(UserChangedEvent.deleted(List.of(user(2L, "lisi", "13000000002"))));
+        assertEquals(OptionalLong.of(3L), mobileIndex.findIdByMobile("13000000003"));
+        assertEquals(OptionalLong.empty(), mobileIndex.findIdByMobile("13000000002"));
+    }
+
+    private void update(String username, String mobile) {
+        users.stream().filter(user -> user.getUsername().equals(username)).forEach(user -> user.setMobile(mobile));
+        mobileIndex.onUserChanged(UserChangedEvent.updated(User.builder().username(username).mobile(mobile).build()));
+    }
+
+    private List<User> find(Collection<String> values, Function<User, String> field) {
+        reads++;
+        return users.stream().filter(user -> values.contains(field.apply(user))).collect(toList());
+    }
+
+    private static User user(Long id, String username, String mobile) {
+        return User.builder().id(id).username(username).mobile(mobile).enabled(true).build();
+    }
+}
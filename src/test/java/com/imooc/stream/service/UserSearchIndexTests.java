@@ -0,0 +1,77 @@
+package com.imooc.stream.service;
+
+import com.imooc.stream.domain.User;
+import com.imooc.stream.domain.UserChangedEvent;
+import com.imooc.stream.domain.dto.UserDTO;
+import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserSearchIndexTests {
+    private final List<User> users = new ArrayList<>();
+    private UserSearchIndex searchIndex;
+
+    @BeforeEach
+    public void setup() {
+        users.add(user("zhangsan", "张三", "13000000001"));
+        users.add(user("lisi", "李四", "13100000002"));
+        users.add(user("wangwu", "王五", "13000000003"));
+        searchIndex = new UserSearchIndex(new UserExportService(null, null, null) {
+            @Override
+            public void forEachUser(Consumer<User> consumer) {
+                users.forEach(consumer);
+            }
+        });
+        searchIndex.afterSingletonsInstantiated();
+    }
+
+    @Test
+    public void givenUsernamePrefix_whenSearch_thenMatched() {
+        assertEquals(List.of("zhangsan"), usernames("ZHANG"));
+    }
+
+    @Test
+    public void givenNameOrInitials_whenSearch_thenMatched() {
+        assertEquals(List.of("lisi"), usernames("李"));
+        assertEquals(List.of("wangwu"), usernames("ww"));
+    }
+
+    @Test
+    public void givenMobilePrefixOrSuffix_whenSearch_thenMatched() {
+        assertEquals(List.of("zhangsan", "wangwu"), usernames("1300"));
+        assertEquals(List.of("lisi"), usernames("0002"));
+    }
+
+    @Test
+    public void givenUpdatedUser_whenSearch_thenOldTermsRemoved() {
+        searchIndex.onUserChanged(UserChangedEvent.updated(user("zhangsan", "赵六", "13900000009")));
+        assertEquals(List.of(), usernames("zs"));
+        assertEquals(List.of(), usernames("13000000001"));
+        val found = searchIndex.search("zl", 10);
+        assertEquals(1, found.size());
+        assertEquals("13900000009", found.get(0).getMobile());
+        assertEquals(UserDTO.ENABLED, found.get(0).getEnabled());
+    }
+
+    @Test
+    public void givenCreatedAndDeletedUsers_whenSearch_thenIndexFollows() {
+        searchIndex.onUserChanged(UserChangedEvent.created(user("zhaoliu", "赵六", "13200000004")));
+        searchIndex.onUserChanged(UserChangedEvent.deleted(List.of(user("zhangsan", "张三", "13000000001"))));
+        assertEquals(List.of("zhaoliu"), usernames("zh"));
+    }
+
+    private List<String> usernames(String query) {
+        return searchIndex.search(query, 10).stream().map(UserDTO::getUsername).collect(toList());
+    }
+
+    private static User user(String username, String name, String mobile) {
+        return User.builder().username(username).name(name).mobile(mobile).enabled(true).build();
+    }
+}
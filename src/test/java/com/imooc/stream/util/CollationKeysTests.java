@@ -0,0 +1,59 @@
+package com.imooc.stream.util;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CollationKeysTests {
+    private static final List<String> NAMES = List.of("王五", "张三", "李四", "赵六", "阿明", "李小", "周八", "陈七", "欧阳");
+
+    @Test
+    public void givenChineseNames_whenSortByKeys_thenSameAsCollator() {
+        val collator = Collator.getInstance(Locale.SIMPLIFIED_CHINESE);
+        val expected = NAMES.stream().sorted(collator).collect(toList());
+        assertEquals(expected, CollationKeys.SIMPLIFIED_CHINESE.sort(NAMES, Function.identity()));
+        assertEquals("阿明", expected.get(0));
+    }
+
+    @Test
+    public void givenHexSortKeys_whenCompareAsStrings_thenSameAsCollator() {
+        val collator = Collator.getInstance(Locale.SIMPLIFIED_CHINESE);
+        val byKey = new ArrayList<>(NAMES);
+        byKey.sort(Comparator.comparing(CollationKeys.SIMPLIFIED_CHINESE::sortKey));
+        assertEquals(NAMES.stream().sorted(collator).collect(toList()), byKey);
+    }
+
+    @Test
+    public void givenNullText_whenSort_thenNullsFirstAndStable() {
+        val sorted = CollationKeys.SIMPLIFIED_CHINESE.sort(Arrays.asList("李四", null, "张三", "李四"), Function.identity());
+        assertEquals(Arrays.asList(null, "李四", "李四", "张三"), sorted);
+        assertNull(CollationKeys.SIMPLIFIED_CHINESE.sortKey(null));
+    }
+
+    @Test
+    public void givenMaximumLengthNames_whenSortKey_thenFitsColumn() {
+        for (String c : List.of("ß", "ª", "龥", "\u3400", "张", "A")) {
+            val key = CollationKeys.SIMPLIFIED_CHINESE.sortKey(c.repeat(50));
+            assertTrue(key.length() <= CollationKeys.MAX_SORT_KEY_LENGTH, c + ": " + key.length());
+        }
+        assertEquals(1208, CollationKeys.SIMPLIFIED_CHINESE.sortKey("ª".repeat(50)).length());
+    }
+
+    @Test
+    public void givenOverlongText_whenSortKey_thenTruncatedPrefix() {
+        val text = "ª".repeat(500);
+        val key = CollationKeys.SIMPLIFIED_CHINESE.sortKey(text);
+        assertEquals(CollationKeys.MAX_SORT_KEY_LENGTH, key.length());
+        assertTrue(key.compareTo(CollationKeys.SIMPLIFIED_CHINESE.sortKey("ª".repeat(499) + "b")) <= 0);
+    }
+}
@@ -0,0 +1,112 @@
+package com.imooc.stream.util;
+
+import lombok.val;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CountingDataSourceTests {
+    @RegisterExtension
+    SqlStatementCounter sql = new SqlStatementCounter();
+
+    private Connection connection;
+
+    @BeforeEach
+    public void setup() throws SQLException {
+        val h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:counting;DB_CLOSE_DELAY=-1");
+        connection = new CountingDataSource(h2).getConnection();
+        try (val statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE items (id INT PRIMARY KEY, name VARCHAR(20))");
+        }
+        try (val insert = connection.prepareStatement("INSERT INTO items VALUES (?, ?)")) {
+            for (int i = 1; i <= 10; i++) {
+                insert.setInt(1, i);
+                insert.setString(2, "item" + i);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+
+    @AfterEach
+    public void teardown() throws SQLException {
+        SqlStats.end();
+        try (val statement = connection.createStatement()) {
+            statement.execute("DROP TABLE items");
+        }
+        connection.close();
+    }
+
+    @Test
+    @SqlStatementCounter.AtMost(1)
+    public void givenSelect_whenIterateResultSet_thenOneStatementAndAllRows() throws SQLException {
+        try (val select = connection.prepareStatement("SELECT * FROM items WHERE id > ?")) {
+            select.setInt(1, 3);
+            try (val rows = select.executeQuery()) {
+                while (rows.next()) {
+                    assertNotNull(rows.getString("name"));
+                }
+            }
+        }
+        sql.assertStatements(1);
+        assertEquals(7, sql.getRows());
+        assertTrue(sql.getStats().getNanos() > 0);
+    }
+
+    @Test
+    public void givenBatchInsert_whenExecuteBatch_thenOneStatement() throws SQLException {
+        try (val insert = connection.prepareStatement("INSERT INTO items VALUES (?, ?)")) {
+            for (int i = 11; i <= 15; i++) {
+                insert.setInt(1, i);
+                insert.setString(2, "item" + i);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        sql.assertStatements(1);
+    }
+
+    @Test
+    public void givenQueryPerRow_whenCount_thenRepeatedSqlReported() throws SQLException {
+        for (int id = 1; id <= 4; id++) {
+            try (val select = connection.prepareStatement("SELECT name FROM items WHERE id = ?")) {
+                select.setInt(1, id);
+                select.executeQuery().close();
+            }
+        }
+        sql.assertStatements(4);
+        val repeated = sql.getStats().mostRepeated();
+        assertEquals("SELECT name FROM items WHERE id = ?", repeated.getKey());
+        assertEquals(4, repeated.getValue());
+    }
+
+    @Test
+    public void givenFailingBudget_whenExceeded_thenNextStatementRejected() throws SQLException {
+        val stats = SqlStats.begin(2, true);
+        try (val statement = connection.createStatement()) {
+            statement.executeQuery("SELECT 1").close();
+            statement.executeQuery("SELECT 2").close();
+            assertThrows(SqlStats.BudgetExceededException.class, () -> statement.executeQuery("SELECT 3"));
+        }
+        assertEquals(2, stats.getStatements());
+        assertFalse(stats.isOverBudget());
+    }
+
+    @Test
+    public void givenNotTracking_whenExecute_thenNothingCounted() throws SQLException {
+        val stats = SqlStats.end();
+        try (val statement = connection.createStatement()) {
+            statement.executeQuery("SELECT 1").close();
+        }
+        assertEquals(0, stats.getStatements());
+        assertNull(SqlStats.current());
+    }
+}
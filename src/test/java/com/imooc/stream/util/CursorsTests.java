@@ -0,0 +1,22 @@
+package com.imooc.stream.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CursorsTests {
+
+    @Test
+    public void givenId_whenEncodeAndDecode_thenRoundTrip() {
+        assertEquals(0L, Cursors.decode(Cursors.encode(0L)));
+        assertEquals(Long.MAX_VALUE, Cursors.decode(Cursors.encode(Long.MAX_VALUE)));
+        assertEquals(10_000L, Cursors.decode(Cursors.encode(10_000L)));
+    }
+
+    @Test
+    public void givenGarbage_whenDecode_thenThrow() {
+        assertThrows(IllegalArgumentException.class, () -> Cursors.decode("zz"));
+        assertThrows(IllegalArgumentException.class, () -> Cursors.decode("not a cursor!"));
+    }
+}
@@ -0,0 +1,69 @@
+package com.imooc.stream.util;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTests {
+
+    @Test
+    public void givenUniformLatencies_whenSnapshot_thenPercentilesWithinOnePercent() {
+        val histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(i), false);
+        }
+        val snapshot = histogram.snapshot();
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(500, snapshot.getP50(), 5);
+        assertEquals(900, snapshot.getP90(), 9);
+        assertEquals(990, snapshot.getP99(), 10);
+        assertEquals(999, snapshot.getP999(), 10);
+        assertEquals(1000, snapshot.getMax(), 10);
+    }
+
+    @Test
+    public void givenFailures_whenSnapshot_thenErrorRate() {
+        val histogram = new LatencyHistogram();
+        histogram.record(1000, true);
+        histogram.record(1000, false);
+        histogram.record(1000, false);
+        histogram.record(1000, false);
+        val snapshot = histogram.snapshot();
+        assertEquals(1, snapshot.getErrors());
+        assertEquals(0.25, snapshot.getErrorRate(), 1e-9);
+    }
+
+    @Test
+    public void givenSnapshotsOverTime_whenRecordMore_thenCumulative() {
+        val histogram = new LatencyHistogram();
+        histogram.record(1000, false);
+        assertEquals(1, histogram.snapshot().getCount());
+        histogram.record(1000, false);
+        assertEquals(2, histogram.snapshot().getCount());
+        histogram.reset();
+        assertEquals(0, histogram.snapshot().getCount());
+    }
+
+    @Test
+    public void givenOutOfRangeValues_whenRecord_thenClamped() {
+        val histogram = new LatencyHistogram();
+        histogram.record(-1, false);
+        histogram.record(TimeUnit.HOURS.toNanos(1), false);
+        val snapshot = histogram.snapshot();
+        assertEquals(2, snapshot.getCount());
+        assertEquals(60_000, snapshot.getMax(), 600);
+    }
+
+    @Test
+    public void givenConcurrentRecording_whenSnapshot_thenNoLostCounts() {
+        val histogram = new LatencyHistogram();
+        IntStream.range(0, 100_000).parallel().forEach(i -> histogram.record(1000 + i, i % 10 == 0));
+        val snapshot = histogram.snapshot();
+        assertEquals(100_000, snapshot.getCount());
+        assertEquals(10_000, snapshot.getErrors());
+    }
+}
@@ -0,0 +1,55 @@
+package com.imooc.stream.util;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LongLongHashMapTests {
+
+    @Test
+    public void givenRandomOperations_whenCompareWithHashMap_thenSameContent() {
+        val map = new LongLongHashMap();
+        val expected = new HashMap<Long, Long>();
+        val random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(5_000) - 100;
+            switch (random.nextInt(3)) {
+                case 0:
+                    assertEquals(expected.getOrDefault(key, -1L), map.put(key, i, -1L));
+                    expected.put(key, (long) i);
+                    break;
+                case 1:
+                    assertEquals(expected.merge(key, 1L, Long::sum), map.addTo(key, 1L));
+                    break;
+                default:
+                    val removed = expected.remove(key);
+                    assertEquals(removed == null ? -1L : removed, map.remove(key, -1L));
+                    break;
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        expected.forEach((key, value) -> assertEquals(value, map.get(key, -1L)));
+        val visited = new long[1];
+        map.forEach((key, value) -> {
+            assertEquals(expected.get(key), value);
+            visited[0]++;
+        });
+        assertEquals(expected.size(), visited[0]);
+    }
+
+    @Test
+    public void givenZeroKey_whenPutAndRemove_thenHandledSeparately() {
+        val map = new LongLongHashMap();
+        assertFalse(map.containsKey(0L));
+        assertEquals(-1L, map.put(0L, 7L, -1L));
+        assertTrue(map.containsKey(0L));
+        assertEquals(7L, map.get(0L, -1L));
+        assertEquals(1, map.size());
+        assertEquals(7L, map.remove(0L, -1L));
+        assertEquals(0, map.size());
+    }
+}
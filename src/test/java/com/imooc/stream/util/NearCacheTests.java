@@ -0,0 +1,81 @@
+package com.imooc.stream.util;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NearCacheTests {
+
+    @Test
+    public void givenConcurrentMisses_whenGet_thenLoadOnce() throws Exception {
+        val loads = new AtomicInteger();
+        val release = new CountDownLatch(1);
+        val cache = new NearCache<String, String>(key -> {
+            loads.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Optional.of(key.toUpperCase());
+        }, 100, Duration.ofMinutes(1), Duration.ofSeconds(1));
+        val pool = Executors.newFixedThreadPool(8);
+        List<Future<Optional<String>>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(pool.submit(() -> cache.get("zhangsan")));
+        }
+        Thread.sleep(100);
+        release.countDown();
+        for (val future : futures) {
+            assertEquals("ZHANGSAN", future.get(5, TimeUnit.SECONDS).orElseThrow());
+        }
+        pool.shutdown();
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void givenMissingKey_whenGetTwice_thenNotFoundIsCached() {
+        val loads = new AtomicInteger();
+        val cache = new NearCache<String, String>(key -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        }, 100, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        assertTrue(cache.get("nobody").isEmpty());
+        assertTrue(cache.get("nobody").isEmpty());
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.stats().getHits());
+    }
+
+    @Test
+    public void givenCachedKey_whenInvalidate_thenReload() {
+        val loads = new AtomicInteger();
+        val cache = new NearCache<String, Integer>(
+                key -> Optional.of(loads.incrementAndGet()), 100, Duration.ofMinutes(1), Duration.ofSeconds(1));
+        assertEquals(1, cache.get("lisi").orElseThrow());
+        cache.invalidate("lisi");
+        assertEquals(2, cache.get("lisi").orElseThrow());
+    }
+
+    @Test
+    public void givenFullCache_whenGet_thenEvict() {
+        val cache = new NearCache<Integer, Integer>(
+                Optional::of, 16, Duration.ofMinutes(1), Duration.ofSeconds(1));
+        for (int i = 0; i < 1000; i++) {
+            cache.get(i);
+        }
+        val stats = cache.stats();
+        assertTrue(stats.getSize() <= 16);
+        assertEquals(1000 - stats.getSize(), stats.getEvictions());
+    }
+}
@@ -0,0 +1,56 @@
+package com.imooc.stream.util;
+
+import lombok.val;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static java.util.stream.Collectors.toSet;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelExecutorTests {
+    private final ParallelExecutor executor = new ParallelExecutor(Map.of("analytics", 2), Duration.ofSeconds(5));
+
+    @AfterEach
+    public void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    public void givenParallelStream_whenExecute_thenRunOnNamedPool() {
+        val threads = executor.execute("analytics", () -> IntStream.range(0, 10_000)
+                .parallel()
+                .mapToObj(i -> Thread.currentThread().getName())
+                .collect(toSet()));
+        assertFalse(threads.isEmpty());
+        assertTrue(threads.stream().allMatch(name -> name.startsWith("parallel-analytics-")), threads::toString);
+        assertEquals(2, executor.stats().get("analytics").getParallelism());
+    }
+
+    @Test
+    public void givenSlowPipeline_whenDeadlinePassed_thenThrow() {
+        assertThrows(ParallelExecutor.DeadlineExceededException.class,
+                () -> executor.execute("analytics", Duration.ofMillis(50), () -> {
+                    try {
+                        Thread.sleep(2_000);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return 0;
+                }));
+    }
+
+    @Test
+    public void givenFailingPipeline_whenExecute_thenRethrowCause() {
+        assertThrows(ArithmeticException.class,
+                () -> executor.execute("analytics", () -> IntStream.of(1, 0).parallel().map(i -> 1 / i).sum()));
+    }
+
+    @Test
+    public void givenUnknownPool_whenExecute_thenThrow() {
+        assertThrows(IllegalArgumentException.class, () -> executor.execute("nope", () -> 1));
+    }
+}
@@ -0,0 +1,66 @@
+package com.imooc.stream.util;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PrefixIndexTests {
+
+    @Test
+    public void givenTerms_whenSearchPrefix_thenKeysInTermOrder() {
+        val index = new PrefixIndex();
+        index.add("zhangsan", "u2");
+        index.add("zhangwu", "u1");
+        index.add("zhao", "u3");
+        index.add("li", "u4");
+        assertEquals(List.of("u2", "u1"), index.search("zhang", 10));
+        assertEquals(List.of("u2", "u1", "u3"), index.search("zh", 10));
+        assertEquals(List.of("u2"), index.search("zhangsan", 10));
+        assertEquals(List.of(), index.search("zhangsanfeng", 10));
+    }
+
+    @Test
+    public void givenManyMatches_whenSearchWithLimit_thenAtMostLimitKeys() {
+        val index = new PrefixIndex();
+        for (int i = 0; i < 100; i++) {
+            index.add("user" + i, "u" + i);
+        }
+        assertEquals(5, index.search("user", 5).size());
+        assertEquals(11, index.search("user1", 100).size());
+    }
+
+    @Test
+    public void givenSameKeyUnderSeveralTerms_whenSearch_thenKeyReturnedOnce() {
+        val index = new PrefixIndex();
+        index.add("ab", "k1");
+        index.add("abc", "k1");
+        index.add("abd", "k2");
+        assertEquals(List.of("k1", "k2"), index.search("ab", 10));
+    }
+
+    @Test
+    public void givenRemovedTerm_whenSearch_thenKeyGone() {
+        val index = new PrefixIndex();
+        index.add("13000000001", "u1");
+        index.add("13000000002", "u2");
+        index.remove("13000000001", "u1");
+        assertEquals(List.of("u2"), index.search("1300", 10));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void givenTermContainingSeparator_whenSearch_thenSeparatorIgnored() {
+        val index = new PrefixIndex();
+        index.add("a\0b", "k1");
+        assertEquals(List.of("k1"), index.search("ab", 10));
+    }
+
+    @Test
+    public void givenChineseName_whenInitials_thenFirstLetters() {
+        assertEquals("zs", Pinyin.initials("张三"));
+        assertEquals("lsa1", Pinyin.initials("李四A1"));
+    }
+}
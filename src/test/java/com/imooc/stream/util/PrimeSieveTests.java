@@ -0,0 +1,76 @@
+package com.imooc.stream.util;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.util.Spliterator;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PrimeSieveTests {
+
+    @Test
+    public void givenSieve_whenIsPrime_thenMatchTrialDivision() {
+        val sieve = PrimeSieve.of(100_000);
+        for (int n = 0; n < 100_000; n++) {
+            assertEquals(isPrimeByTrialDivision(n), sieve.isPrime(n), "n = " + n);
+        }
+    }
+
+    @Test
+    public void givenSieve_whenPrimes_thenCountKnownValues() {
+        val sieve = PrimeSieve.of(10_000_000);
+        assertEquals(664_579, sieve.primes().count());
+        assertEquals(78_498, sieve.countBelow(1_000_000));
+        assertEquals(78_498, sieve.primes(0, 1_000_000).parallel().filter(p -> true).count());
+        assertArrayEquals(new int[]{2, 3, 5, 7, 11, 13}, sieve.primes(0, 14).toArray());
+        assertArrayEquals(new int[]{101, 103, 107, 109, 113}, sieve.primes(100, 120).toArray());
+    }
+
+    @Test
+    public void givenParallelStream_whenSum_thenSameAsSequential() {
+        val sieve = PrimeSieve.of(2_000_000);
+        assertEquals(sieve.primes().asLongStream().sum(), sieve.primes().parallel().asLongStream().sum());
+    }
+
+    @Test
+    public void givenPrimes_whenSplit_thenSubsizesAreExact() {
+        val spliterator = PrimeSieve.of(1_000_000).primes(10, 999_999).spliterator();
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.SORTED));
+        val total = spliterator.getExactSizeIfKnown();
+        val prefix = spliterator.trySplit();
+        assertNotNull(prefix);
+        val prefixSize = prefix.getExactSizeIfKnown();
+        val suffixSize = spliterator.getExactSizeIfKnown();
+        assertEquals(total, prefixSize + suffixSize);
+        val counted = new long[1];
+        prefix.forEachRemaining((int p) -> counted[0]++);
+        assertEquals(prefixSize, counted[0]);
+    }
+
+    @Test
+    public void givenSmallLimits_whenPrimes_thenBoundsRespected() {
+        assertEquals(0, PrimeSieve.of(0).primes().count());
+        assertEquals(0, PrimeSieve.of(2).primes().count());
+        assertArrayEquals(new int[]{2}, PrimeSieve.of(3).primes().toArray());
+        assertArrayEquals(new int[]{2, 3, 5, 7}, PrimeSieve.of(11).primes().toArray());
+        assertThrows(IllegalArgumentException.class, () -> PrimeSieve.of(11).isPrime(11));
+    }
+
+    @Test
+    public void givenSieve_whenNextPrime_thenSmallestNotBelow() {
+        val sieve = PrimeSieve.of(1_000);
+        assertEquals(2, sieve.nextPrime(0));
+        assertEquals(101, sieve.nextPrime(98));
+        assertEquals(997, sieve.nextPrime(997));
+        assertEquals(-1, sieve.nextPrime(998));
+    }
+
+    private static boolean isPrimeByTrialDivision(int n) {
+        if (n < 2) {
+            return false;
+        }
+        return IntStream.rangeClosed(2, (int) Math.sqrt(n)).noneMatch(i -> n % i == 0);
+    }
+}
@@ -0,0 +1,63 @@
+package com.imooc.stream.util;
+
+import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RoleBitmapIndexTests {
+    private final RoleBitmapIndex index = new RoleBitmapIndex();
+
+    @BeforeEach
+    public void setup() {
+        index.rebuild(() -> {
+            index.addUser(1L, true, 30);
+            index.addUser(2L, true, 41);
+            index.addUser(3L, false, 52);
+            index.addRole(1L, "ROLE_ADMIN");
+            index.addRole(1L, "ROLE_USER");
+            index.addRole(2L, "ROLE_ADMIN");
+            index.addRole(3L, "ROLE_USER");
+        });
+    }
+
+    @Test
+    public void givenAllRoles_whenQuery_thenIntersect() {
+        val result = index.query(List.of("ROLE_ADMIN", "ROLE_USER"), List.of(), List.of(), null, null, null);
+        assertArrayEquals(new int[]{1}, result.toArray());
+    }
+
+    @Test
+    public void givenAnyAndNoneRoles_whenQuery_thenUnionMinusExcluded() {
+        val result = index.query(List.of(), List.of("ROLE_ADMIN", "ROLE_USER"), List.of("ROLE_ADMIN"), null, null, null);
+        assertArrayEquals(new int[]{3}, result.toArray());
+    }
+
+    @Test
+    public void givenEnabledAndAgeRange_whenQuery_thenFilter() {
+        assertArrayEquals(new int[]{2}, index.query(List.of(), List.of(), List.of(), true, 40, null).toArray());
+        assertArrayEquals(new int[]{3}, index.query(List.of(), List.of(), List.of(), false, null, null).toArray());
+        assertArrayEquals(new int[]{1, 2}, index.query(List.of(), List.of(), List.of(), null, null, 41).toArray());
+    }
+
+    @Test
+    public void givenUnknownRole_whenQuery_thenEmpty() {
+        assertTrue(index.query(List.of("ROLE_ROOT"), List.of(), List.of(), null, null, null).isEmpty());
+    }
+
+    @Test
+    public void givenRemovedUser_whenQuery_thenExcluded() {
+        index.removeUser(1L);
+        val result = index.query(List.of(), List.of("ROLE_USER"), List.of(), null, null, null);
+        assertArrayEquals(new int[]{3}, result.toArray());
+    }
+
+    @Test
+    public void givenQueryResult_whenModified_thenIndexUnchanged() {
+        index.query(List.of(), List.of(), List.of(), null, null, null).clear();
+        assertEquals(3, index.query(List.of(), List.of(), List.of(), null, null, null).getCardinality());
+    }
+}
@@ -0,0 +1,78 @@
+package com.imooc.stream.util;
+
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.InvocationInterceptor;
+import org.junit.jupiter.api.extension.ReflectiveInvocationContext;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.reflect.Method;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 统计每个测试方法在测试线程上经 {@link CountingDataSource} 执行的 SQL 语句，
+ * 只统计测试方法本身，&#64;BeforeEach / &#64;AfterEach 中准备和清理数据的语句不计入。
+ * <pre>
+ * &#64;RegisterExtension
+ * SqlStatementCounter sql = new SqlStatementCounter();
+ *
+ * &#64;Test
+ * &#64;SqlStatementCounter.AtMost(2)
+ * void test() { ...; sql.assertStatements(1); }
+ * </pre>
+ */
+public class SqlStatementCounter implements InvocationInterceptor {
+    private SqlStats stats;
+
+    /**
+     * 测试方法执行的语句不能超过 value 条，在测试方法结束后检查
+     */
+    @Target(ElementType.METHOD)
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface AtMost {
+        int value();
+    }
+
+    @Override
+    public void interceptTestMethod(Invocation<Void> invocation,
+                                    ReflectiveInvocationContext<Method> invocationContext,
+                                    ExtensionContext extensionContext) throws Throwable {
+        stats = SqlStats.begin(0, false);
+        try {
+            invocation.proceed();
+        } finally {
+            SqlStats.end();
+        }
+        extensionContext.getTestMethod()
+                .map(method -> method.getAnnotation(AtMost.class))
+                .ifPresent(atMost -> assertTrue(stats.getStatements() <= atMost.value(),
+                        "expected at most " + atMost.value() + " SQL statements but was " + stats.getStatements()));
+    }
+
+    /**
+     * 清零，只统计之后执行的语句，例如跳过准备数据的语句
+     */
+    public void reset() {
+        stats = SqlStats.begin(0, false);
+    }
+
+    public int getStatements() {
+        return stats.getStatements();
+    }
+
+    public long getRows() {
+        return stats.getRows();
+    }
+
+    public SqlStats getStats() {
+        return stats;
+    }
+
+    public void assertStatements(int expected) {
+        assertEquals(expected, stats.getStatements(), "SQL statements");
+    }
+}
@@ -0,0 +1,70 @@
+package com.imooc.stream.util;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StreamsTests {
+
+    @Test
+    public void givenArithmetic_whenCollect_thenSameAsIterate() {
+        assertArrayEquals(
+                IntStream.iterate(3, n -> n + 7).limit(100).toArray(),
+                Streams.arithmetic(3, 7, 100).toArray());
+        assertEquals(
+                Stream.iterate(0L, n -> n - 2).limit(10).mapToLong(Long::longValue).sum(),
+                Streams.arithmetic(0L, -2L, 10L).sum());
+    }
+
+    @Test
+    public void givenArithmetic_whenSpliterator_thenSizedAndSubsized() {
+        val spliterator = Streams.arithmetic(0, 1, 1_000).parallel().spliterator();
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED));
+        val prefix = spliterator.trySplit();
+        assertEquals(500, prefix.getExactSizeIfKnown());
+        assertEquals(500, spliterator.getExactSizeIfKnown());
+    }
+
+    @Test
+    public void givenIterator_whenParallel_thenKeepOrderAndAllElements() {
+        val source = IntStream.range(0, 100_000).boxed().collect(toList());
+        val result = Streams.fromIterator(source.iterator(), 1, 1_024)
+                .parallel()
+                .map(n -> n * 2)
+                .collect(toList());
+        assertEquals(source.size(), result.size());
+        for (int i = 0; i < source.size(); i++) {
+            assertEquals(source.get(i) * 2, result.get(i));
+        }
+    }
+
+    @Test
+    public void givenFewExpensiveElements_whenParallel_thenSpreadAcrossThreads() {
+        val threads = Streams.fromIterator(List.of(1, 2, 3, 4, 5, 6, 7, 8).iterator(), 1, 4)
+                .parallel()
+                .map(n -> {
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return Thread.currentThread().getName();
+                })
+                .collect(toSet());
+        assertTrue(threads.size() > 1 || Runtime.getRuntime().availableProcessors() == 1, threads::toString);
+    }
+
+    @Test
+    public void givenInvalidBatch_whenFromIterator_thenThrow() {
+        assertThrows(IllegalArgumentException.class, () -> Streams.fromIterator(List.of().iterator(), 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> Streams.fromIterator(List.of().iterator(), 8, 4));
+    }
+}
@@ -0,0 +1,93 @@
+package com.imooc.stream.util;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TryTests {
+
+    @Test
+    public void givenSuccess_whenMapAndFlatMap_thenTransformValue() {
+        val result = Try.success("42")
+                .map(Integer::parseInt)
+                .flatMap(n -> n > 0 ? Try.success(n * 2) : Try.expected("必须为正数"));
+        assertTrue(result.isSuccess());
+        assertEquals(84, result.get());
+    }
+
+    @Test
+    public void givenThrowingMapper_whenMap_thenFailure() {
+        val result = Try.success("x").map(Integer::parseInt);
+        assertTrue(result.isFailure());
+        assertTrue(result.getCause() instanceof NumberFormatException);
+        assertThrows(NoSuchElementException.class, result::get);
+    }
+
+    @Test
+    public void givenFailure_whenMap_thenSameInstanceAndMapperNotCalled() {
+        val calls = new AtomicInteger();
+        final Try<Integer> failure = Try.expected("bad");
+        val mapped = failure.map(n -> calls.incrementAndGet());
+        assertSame(failure, mapped);
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    public void givenFailure_whenRecoverAndFold_thenUseCause() {
+        final Try<String> failure = Try.attempt(() -> {
+            throw new IOException("disk");
+        });
+        assertEquals("disk", failure.recover(Exception::getMessage).get());
+        assertEquals(-1, (int) failure.fold(e -> -1, String::length));
+        assertEquals("ok", failure.getOrElse("ok"));
+    }
+
+    @Test
+    public void givenLazyTry_whenAccessed_thenEvaluateOnce() {
+        val calls = new AtomicInteger();
+        val lazy = Try.of(calls::incrementAndGet).map(n -> n * 10);
+        assertEquals(0, calls.get());
+        assertEquals(10, lazy.get());
+        assertEquals(10, lazy.get());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void givenExpectedFailure_whenCreated_thenNoStackTrace() {
+        val cause = Try.expected("缺失").getCause();
+        assertEquals("缺失", cause.getMessage());
+        assertEquals(0, cause.getStackTrace().length);
+    }
+
+    @Test
+    public void givenParallelTries_whenPartition_thenSplitSuccessesAndFailures() {
+        val ordered = IntStream.range(0, 10_000).parallel()
+                .mapToObj(i -> i % 3 == 0 ? Try.<Integer>expected("skip " + i) : Try.success(i))
+                .collect(Try.partitioning());
+        assertEquals(6_666, ordered.getSuccesses().size());
+        assertEquals(3_334, ordered.getFailures().size());
+        assertEquals(1, ordered.getSuccesses().get(0));
+    }
+
+    @Test
+    public void givenParallelTries_whenPartitionConcurrently_thenNothingLostOrDuplicated() {
+        for (int run = 0; run < 20; run++) {
+            val partition = IntStream.range(0, 100_000).parallel()
+                    .mapToObj(i -> i % 3 == 0 ? Try.<Integer>expected(Integer.toString(i)) : Try.success(i))
+                    .collect(Try.partitioningConcurrent());
+            assertEquals(
+                    IntStream.range(0, 100_000).filter(i -> i % 3 != 0).boxed().collect(Collectors.toSet()),
+                    new HashSet<>(partition.getSuccesses()));
+            assertEquals(66_666, partition.getSuccesses().size());
+            assertEquals(33_334, partition.getFailures().stream().map(Exception::getMessage).distinct().count());
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.imooc.stream.util;
+
+import com.imooc.stream.domain.User;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.LongStream;
+
+import static com.imooc.stream.util.UserIdIndex.toUserIdIndex;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserIdIndexTests {
+
+    @Test
+    public void givenUsers_whenCollect_thenLookupById() {
+        val index = LongStream.rangeClosed(0, 10_000)
+                .mapToObj(id -> User.builder().id(id).username("user" + id).build())
+                .parallel()
+                .collect(toUserIdIndex());
+        assertEquals(10_001, index.size());
+        assertEquals("user0", index.get(0).getUsername());
+        assertEquals("user4242", index.get(4242).getUsername());
+        assertNull(index.get(10_001));
+    }
+
+    @Test
+    public void givenRandomOperations_whenComparedWithHashMap_thenSameContent() {
+        val random = new Random(42);
+        val index = new UserIdIndex();
+        Map<Long, User> expected = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            long id = random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                assertSame(expected.remove(id), index.remove(id));
+            } else {
+                val user = User.builder().id(id).build();
+                assertSame(expected.put(id, user), index.put(user));
+            }
+        }
+        assertEquals(expected.size(), index.size());
+        expected.forEach((id, user) -> assertSame(user, index.get(id)));
+        for (long id = 0; id < 5_000; id++) {
+            assertEquals(expected.containsKey(id), index.containsId(id));
+        }
+    }
+
+    @Test
+    public void givenTransientUser_whenPut_thenThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new UserIdIndex().put(User.builder().build()));
+    }
+}
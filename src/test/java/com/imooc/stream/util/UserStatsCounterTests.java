@@ -0,0 +1,77 @@
+package com.imooc.stream.util;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserStatsCounterTests {
+
+    @Test
+    public void givenUsers_whenBuckets_thenSummarizePerBucket() {
+        val counter = new UserStatsCounter();
+        counter.add(30, true);
+        counter.add(32, false);
+        counter.add(41, true);
+        val snapshot = counter.snapshot();
+        assertEquals(3, snapshot.getTotal());
+        assertEquals(2, snapshot.getEnabled());
+        val buckets = snapshot.buckets(10);
+        assertEquals(2, buckets.size());
+        assertEquals(30, buckets.get(0).getBucket());
+        assertEquals(2, buckets.get(0).getCount());
+        assertEquals(30, buckets.get(0).getMin());
+        assertEquals(32, buckets.get(0).getMax());
+        assertEquals(62, buckets.get(0).getSum());
+    }
+
+    @Test
+    public void givenDuplicateAges_whenRemoveOne_thenMinMaxKept() {
+        val counter = new UserStatsCounter();
+        counter.add(30, true);
+        counter.add(30, true);
+        counter.add(35, true);
+        counter.remove(30, true);
+        var bucket = counter.snapshot().buckets(10).get(0);
+        assertEquals(30, bucket.getMin());
+        counter.remove(30, true);
+        bucket = counter.snapshot().buckets(10).get(0);
+        assertEquals(35, bucket.getMin());
+        assertEquals(1, bucket.getCount());
+    }
+
+    @Test
+    public void givenAgeOutOfRange_whenAddOrRemove_thenRejected() {
+        val counter = new UserStatsCounter();
+        assertThrows(IllegalArgumentException.class, () -> counter.add(-1, true));
+        assertThrows(IllegalArgumentException.class, () -> counter.add(UserStatsCounter.MAX_AGE + 1, true));
+        assertThrows(IllegalArgumentException.class, () -> counter.remove(UserStatsCounter.MAX_AGE + 1, true));
+        assertEquals(0, counter.snapshot().getTotal());
+        counter.add(UserStatsCounter.MAX_AGE, true);
+        assertEquals(UserStatsCounter.MAX_AGE, counter.snapshot().buckets(10).get(0).getMax());
+    }
+
+    @Test
+    public void givenConcurrentWriters_whenSnapshot_thenCountsExact() throws Exception {
+        val counter = new UserStatsCounter();
+        val pool = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            pool.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    counter.add(i % 100, i % 2 == 0);
+                    if (i % 4 == 0) {
+                        counter.remove(i % 100, true);
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        val snapshot = counter.snapshot();
+        assertEquals(8 * 7_500, snapshot.getTotal());
+        assertEquals(8 * 2_500, snapshot.getEnabled());
+    }
+}
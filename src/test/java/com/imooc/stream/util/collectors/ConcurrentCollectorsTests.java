@@ -0,0 +1,65 @@
+package com.imooc.stream.util.collectors;
+
+import com.imooc.stream.domain.User;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static java.util.stream.Collectors.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentCollectorsTests {
+
+    @Test
+    public void givenParallelUsers_whenToConcurrentSortedMap_thenSortedAndMerged() {
+        val map = IntStream.range(0, 10_000).parallel()
+                .mapToObj(i -> User.builder().id((long) i).username("user" + (i % 1_000)).build())
+                .collect(ConcurrentCollectors.toConcurrentSortedMap(User::getUsername, user -> 1, Integer::sum));
+        assertEquals(1_000, map.size());
+        assertEquals("user0", map.firstKey());
+        assertTrue(map.values().stream().allMatch(count -> count == 10));
+    }
+
+    @Test
+    public void givenParallelStream_whenGroupingByConcurrentQueue_thenSameGroupsAsJdk() {
+        val ours = IntStream.range(0, 10_000).boxed().parallel()
+                .collect(ConcurrentCollectors.groupingByConcurrentQueue(n -> n % 7));
+        val jdk = IntStream.range(0, 10_000).boxed()
+                .collect(groupingBy(n -> n % 7, toSet()));
+        assertEquals(jdk.keySet(), ours.keySet());
+        jdk.forEach((key, group) -> assertEquals(group, ours.get(key).stream().collect(toSet())));
+    }
+
+    @Test
+    public void givenParallelStream_whenSummarizingLong_thenSameAsJdk() {
+        val ours = IntStream.range(-5_000, 10_000).boxed().parallel()
+                .collect(ConcurrentCollectors.summarizingLong(Integer::longValue));
+        val jdk = IntStream.range(-5_000, 10_000).boxed()
+                .collect(summarizingLong(Integer::longValue));
+        assertEquals(jdk.toString(), ours.toString());
+        assertEquals(0, IntStream.empty().boxed().collect(ConcurrentCollectors.summarizingLong(Integer::longValue)).getCount());
+    }
+
+    @Test
+    public void givenParallelStream_whenCountingByLong_thenSameAsJdk() {
+        val ours = IntStream.range(0, 100_000).boxed().parallel()
+                .collect(ConcurrentCollectors.countingByLong(n -> n % 1_000));
+        val jdk = IntStream.range(0, 100_000).boxed()
+                .collect(groupingBy(n -> (long) (n % 1_000), counting()));
+        assertEquals(jdk.size(), ours.size());
+        jdk.forEach((key, count) -> assertEquals(count, ours.get(key, -1L)));
+        assertEquals(100, ours.get(0L, -1L));
+        assertEquals(-1L, ours.get(1_000L, -1L));
+    }
+
+    @Test
+    public void givenDuplicates_whenToConcurrentSortedMapWithComparator_thenReverseOrder() {
+        val map = IntStream.range(0, 100).boxed()
+                .collect(ConcurrentCollectors.toConcurrentSortedMap(
+                        n -> n % 10, Function.identity(), Math::max, java.util.Comparator.<Integer>reverseOrder()));
+        assertEquals(9, map.firstKey());
+        assertEquals(99, map.get(9));
+    }
+}